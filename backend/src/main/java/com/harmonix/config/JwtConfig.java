@@ -14,9 +14,12 @@ public class JwtConfig {
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long jwtCacheMaxSize;
+
     @PostConstruct
     public void init() {
-        JwtUtil.initialize(jwtSecret, jwtExpiration);
+        JwtUtil.initialize(jwtSecret, jwtExpiration, jwtCacheMaxSize);
     }
 }
 
@@ -0,0 +1,215 @@
+package com.harmonix.config;
+
+import com.harmonix.entity.ChatHead;
+import com.harmonix.entity.CollaborationRequest;
+import com.harmonix.entity.JobPost;
+import com.harmonix.entity.Message;
+import com.harmonix.entity.MessageArchive;
+import com.harmonix.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the Mongo indexes declared on the entities ({@code @Indexed},
+ * {@code @CompoundIndex}, {@code @TextIndexed}). In {@code create} mode missing indexes are built at
+ * startup; in {@code verify} mode (production) startup fails if any are missing.
+ * Each repository query is then explained and a COLLSCAN plan is reported, or
+ * treated as fatal when {@code app.mongo.indexes.fail-on-collscan} is set.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            User.class, Message.class, ChatHead.class, JobPost.class, CollaborationRequest.class,
+            MessageArchive.class
+    );
+
+    private static final String PROBE = "index-probe";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.indexes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mongo.indexes.mode:create}")
+    private String mode;
+
+    @Value("${app.mongo.indexes.explain:true}")
+    private boolean explain;
+
+    @Value("${app.mongo.indexes.fail-on-collscan:false}")
+    private boolean failOnCollscan;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            log.info("Mongo index management disabled");
+            return;
+        }
+        if ("verify".equalsIgnoreCase(mode)) {
+            verifyIndexes();
+        } else {
+            createIndexes();
+        }
+        if (explain) {
+            checkQueryPlans();
+        }
+    }
+
+    private void createIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            for (IndexDefinition definition : resolver.resolveIndexFor(entity)) {
+                indexOps.ensureIndex(definition);
+            }
+            log.info("Ensured indexes for collection {}", mongoTemplate.getCollectionName(entity));
+        }
+    }
+
+    private void verifyIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        List<String> missing = new ArrayList<>();
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            String collection = mongoTemplate.getCollectionName(entity);
+            List<Document> existing = mongoTemplate.getCollection(collection)
+                    .listIndexes()
+                    .into(new ArrayList<>());
+            for (IndexDefinition definition : resolver.resolveIndexFor(entity)) {
+                if (existing.stream().noneMatch(index -> sameKeys(index, definition))) {
+                    missing.add(collection + " " + definition.getIndexKeys().toJson());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing Mongo indexes: " + missing);
+        }
+        log.info("Verified Mongo indexes for {} collections", INDEXED_ENTITIES.size());
+    }
+
+    private boolean sameKeys(Document existingIndex, IndexDefinition definition) {
+        Document expected = definition.getIndexKeys();
+        if (expected.containsValue("text")) {
+            // Text indexes are stored as {_fts, _ftsx}; the indexed fields live in "weights"
+            Document weights = existingIndex.get("weights", Document.class);
+            return weights != null && expected.keySet().stream()
+                    .filter(field -> !field.startsWith("_fts"))
+                    .allMatch(weights::containsKey);
+        }
+        Document keys = existingIndex.get("key", Document.class);
+        return keys != null && normalize(keys).equals(normalize(expected));
+    }
+
+    private Map<String, Object> normalize(Document keys) {
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        keys.forEach((field, direction) -> normalized.put(field,
+                direction instanceof Number number ? (Object) number.intValue() : direction));
+        return normalized;
+    }
+
+    private void checkQueryPlans() {
+        List<String> collscans = new ArrayList<>();
+        for (PlanCheck check : planChecks()) {
+            Document plan = explain(check);
+            if (containsStage(plan, "COLLSCAN")) {
+                collscans.add(check.name());
+            }
+        }
+        if (collscans.isEmpty()) {
+            log.info("All repository queries are served by an index");
+            return;
+        }
+        if (failOnCollscan) {
+            throw new IllegalStateException("Repository queries planned as COLLSCAN: " + collscans);
+        }
+        log.warn("Repository queries planned as COLLSCAN: {}", collscans);
+    }
+
+    /**
+     * The filters and sorts the derived repository queries send to Mongo.
+     */
+    private List<PlanCheck> planChecks() {
+        return List.of(
+                new PlanCheck("UserRepository.findByEmail", User.class,
+                        new Document("email", PROBE), null, 0),
+                new PlanCheck("ChatHeadRepository.findByParticipantsContaining", ChatHead.class,
+                        new Document("participants", new Document("$in", List.of(PROBE))), null, 0),
+                new PlanCheck("JobPostRepository.findByUserId", JobPost.class,
+                        new Document("userId", PROBE), null, 0),
+                new PlanCheck("CollaborationRequestRepository.findByCreatorId", CollaborationRequest.class,
+                        new Document("creatorId", PROBE), null, 0),
+                new PlanCheck("MessageService.findOlderHot", Message.class,
+                        keysetPage("$lt"), new Document("timestamp", -1).append("_id", -1), 51),
+                new PlanCheck("MessageService.findNewerHot", Message.class,
+                        keysetPage("$gt"), new Document("timestamp", 1).append("_id", 1), 51),
+                new PlanCheck("MessageDeliveryService.findPending", Message.class,
+                        new Document("receiverId", PROBE), new Document("timestamp", 1).append("_id", 1), 100),
+                new PlanCheck("ChatDeletionJob.findTombstones", ChatHead.class,
+                        new Document("deletedAt", new Document("$exists", true)), null, 0),
+                new PlanCheck("MessageArchiveService.findOlder", MessageArchive.class,
+                        new Document("chatId", PROBE), new Document("fromTimestamp", -1), 0)
+        );
+    }
+
+    /**
+     * A chat history page past a (timestamp, id) cursor, shaped like the
+     * keyset filter MessageService builds.
+     */
+    private Document keysetPage(String direction) {
+        Date timestamp = new Date();
+        String bound = "$lt".equals(direction) ? "$lte" : "$gte";
+        return new Document("chatId", PROBE)
+                .append("timestamp", new Document(bound, timestamp))
+                .append("$or", List.of(
+                        new Document("timestamp", new Document(direction, timestamp)),
+                        new Document("_id", new Document(direction, new ObjectId()))));
+    }
+
+    private Document explain(PlanCheck check) {
+        Document find = new Document("find", mongoTemplate.getCollectionName(check.entity()))
+                .append("filter", check.filter());
+        if (check.sort() != null) {
+            find.append("sort", check.sort());
+        }
+        if (check.limit() > 0) {
+            find.append("limit", check.limit());
+        }
+        Document result = mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+        Document queryPlanner = result.get("queryPlanner", Document.class);
+        return queryPlanner != null ? queryPlanner.get("winningPlan", Document.class) : new Document();
+    }
+
+    private boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+
+    private record PlanCheck(String name, Class<?> entity, Document filter, Document sort, int limit) {
+    }
+}
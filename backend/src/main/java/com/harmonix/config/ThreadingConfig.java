@@ -0,0 +1,41 @@
+package com.harmonix.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for blocking work outside the request thread. With
+ * {@code spring.threads.virtual.enabled} each task gets its own virtual
+ * thread; otherwise a bounded platform pool is used.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.delivery.replay.pool-size:4}")
+    private int replayPoolSize;
+
+    @Bean
+    public AsyncTaskExecutor deliveryReplayExecutor() {
+        return executor("delivery-replay-", replayPoolSize);
+    }
+
+    private AsyncTaskExecutor executor(String threadNamePrefix, int poolSize) {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor(threadNamePrefix);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,197 @@
+package com.harmonix.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-session outbound backlog tracking with priority shedding.
+ *
+ * Frames routed to a session are counted on the client outbound channel and
+ * uncounted when the transport actually writes them, so the difference is
+ * that session's backlog. The backlog and the thresholds count frames, not
+ * bytes; {@code app.websocket.send-buffer-size-limit} is the separate byte
+ * limit the transport enforces. Once the backlog passes a class threshold,
+ * typing and then status frames for the session are held back, keeping only the
+ * latest frame per destination, and released when the backlog drains. Chat
+ * messages are never held back; the transport's send-time and buffer limits
+ * remain the last resort for a client that stops reading entirely.
+ */
+@Component
+public class WebSocketOutboundFlowControl implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    enum Priority { CHAT, STATUS, TYPING }
+
+    private final int statusThreshold;
+    private final int typingThreshold;
+    private final Map<String, SessionBacklog> sessions = new ConcurrentHashMap<>();
+    private final Counter coalescedStatus;
+    private final Counter coalescedTyping;
+
+    public WebSocketOutboundFlowControl(
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.outbound.status-threshold:64}") int statusThreshold,
+            @Value("${app.websocket.outbound.typing-threshold:16}") int typingThreshold) {
+        this.statusThreshold = statusThreshold;
+        this.typingThreshold = typingThreshold;
+        this.coalescedStatus = meterRegistry.counter("websocket.outbound.coalesced", "priority", "status");
+        this.coalescedTyping = meterRegistry.counter("websocket.outbound.coalesced", "priority", "typing");
+        Gauge.builder("websocket.outbound.pending.total", sessions,
+                        all -> all.values().stream().mapToInt(SessionBacklog::pending).sum())
+                .register(meterRegistry);
+        // Aggregates only: a meter per session id would grow and churn with every connection
+        Gauge.builder("websocket.outbound.pending.max", sessions,
+                        all -> all.values().stream().mapToInt(SessionBacklog::pending).max().orElse(0))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionBacklog backlog = sessionId != null ? sessions.get(sessionId) : null;
+        if (backlog == null) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        Priority priority = classify(destination);
+        if (priority == Priority.STATUS && backlog.pending() >= statusThreshold) {
+            backlog.defer(destination, message, channel);
+            coalescedStatus.increment();
+            return null;
+        }
+        if (priority == Priority.TYPING && backlog.pending() >= typingThreshold) {
+            backlog.defer(destination, message, channel);
+            coalescedTyping.increment();
+            return null;
+        }
+        backlog.queued();
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (sent && ex == null) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionBacklog backlog = sessionId != null ? sessions.get(sessionId) : null;
+        if (backlog != null) {
+            backlog.written();
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionBacklog backlog = new SessionBacklog();
+                sessions.put(session.getId(), backlog);
+                super.afterConnectionEstablished(new CountingSession(session, backlog));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                try {
+                    super.afterConnectionClosed(session, closeStatus);
+                } finally {
+                    sessions.remove(session.getId());
+                }
+            }
+        };
+    }
+
+    static Priority classify(String destination) {
+        if (destination == null) {
+            return Priority.CHAT;
+        }
+        if (destination.endsWith("/typing")) {
+            return Priority.TYPING;
+        }
+        if (destination.endsWith("/status")) {
+            return Priority.STATUS;
+        }
+        return Priority.CHAT;
+    }
+
+    private final class SessionBacklog {
+
+        private final AtomicInteger pending = new AtomicInteger();
+        // Latest held-back frame per destination; newer frames replace older ones
+        private final Map<String, Deferred> deferred = new ConcurrentHashMap<>();
+
+        int pending() {
+            return pending.get();
+        }
+
+        void queued() {
+            pending.incrementAndGet();
+        }
+
+        void written() {
+            pending.updateAndGet(value -> Math.max(0, value - 1));
+        }
+
+        void defer(String destination, Message<?> message, MessageChannel channel) {
+            deferred.put(destination, new Deferred(message, channel));
+        }
+
+        void releaseIfDrained() {
+            if (deferred.isEmpty() || pending() > typingThreshold / 2) {
+                return;
+            }
+            Iterator<Deferred> iterator = deferred.values().iterator();
+            while (iterator.hasNext()) {
+                Deferred held = iterator.next();
+                iterator.remove();
+                held.channel().send(held.message());
+            }
+        }
+    }
+
+    private record Deferred(Message<?> message, MessageChannel channel) {
+    }
+
+    /**
+     * Counts the frames the transport actually writes for the session.
+     */
+    private static final class CountingSession extends WebSocketSessionDecorator {
+
+        private final SessionBacklog backlog;
+
+        private CountingSession(WebSocketSession session, SessionBacklog backlog) {
+            super(session);
+            this.backlog = backlog;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                backlog.written();
+                backlog.releaseIfDrained();
+            }
+        }
+    }
+}
@@ -14,10 +14,16 @@ public final class AppConstants {
     public static final String MESSAGES_PATH = API_BASE_PATH + "/messages";
     public static final String CHAT_HEADS_PATH = API_BASE_PATH + "/chat-heads";
     public static final String COLLABORATION_REQUESTS_PATH = API_BASE_PATH + "/collaboration-requests";
+    public static final String SEARCH_PATH = API_BASE_PATH + "/search";
+    public static final String PRESENCE_PATH = API_BASE_PATH + "/presence";
 
     // Cookie Names
     public static final String TOKEN_COOKIE_NAME = "token";
 
+    // Request Attributes
+    public static final String AUTH_CLAIMS_ATTRIBUTE = "harmonix.auth.claims";
+    public static final String AUTH_ERROR_ATTRIBUTE = "harmonix.auth.error";
+
     // Default Values
     public static final String DEFAULT_USER_TYPE = "pending";
     public static final int TOKEN_MAX_AGE_SECONDS = 3600;
@@ -31,7 +37,7 @@ public final class AppConstants {
     public static final String STATUS_PENDING = "pending";
     public static final String STATUS_ACCEPTED = "accepted";
     public static final String STATUS_REJECTED = "rejected";
+    public static final String STATUS_SENT = "sent";
     public static final String STATUS_READ = "read";
     public static final String STATUS_DELIVERED = "delivered";
-    public static final String STATUS_SENT = "sent";
 }
@@ -6,7 +6,9 @@ import com.harmonix.dto.response.UserResponse;
 import com.harmonix.entity.User;
 import com.harmonix.mapper.UserMapper;
 import com.harmonix.repository.UserRepository;
-import com.harmonix.util.AuthUtil;
+import com.harmonix.security.CurrentUser;
+import com.harmonix.service.ResourceVersions;
+import com.harmonix.service.UserPrincipalCache;
 import com.harmonix.util.CookieUtil;
 import com.harmonix.util.JwtUtil;
 import jakarta.servlet.http.HttpServletResponse;
@@ -27,6 +29,8 @@ public class AuthController {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ResourceVersions resourceVersions;
     
     @Value("${app.frontend.url:http://localhost:5173}")
     private String frontendUrl;
@@ -46,16 +50,21 @@ public class AuthController {
         String picture = principal.getAttribute("picture");
 
         User user = userRepository.findByEmail(email)
-                .orElseGet(() -> userRepository.save(
-                        User.builder()
-                                .email(email)
-                                .name(name)
-                                .profileImage(picture)
-                                .userType(AppConstants.DEFAULT_USER_TYPE)
-                                .build()
-                ));
+                .orElseGet(() -> {
+                    User created = userRepository.save(
+                            User.builder()
+                                    .email(email)
+                                    .name(name)
+                                    .profileImage(picture)
+                                    .userType(AppConstants.DEFAULT_USER_TYPE)
+                                    .build()
+                    );
+                    resourceVersions.bump(ResourceVersions.USERS);
+                    return created;
+                });
+        userPrincipalCache.invalidate(email);
 
-        String jwt = JwtUtil.generateToken(email);
+        String jwt = JwtUtil.generateToken(user);
         String cookie = CookieUtil.createTokenCookie(jwt, false);
 
         response.addHeader(HttpHeaders.SET_COOKIE, cookie);
@@ -63,10 +72,7 @@ public class AuthController {
     }
 
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(
-            @CookieValue(name = AppConstants.TOKEN_COOKIE_NAME, required = false) String token) {
-        
-        User user = AuthUtil.requireUser(token, userRepository);
+    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(@CurrentUser User user) {
         UserResponse userResponse = userMapper.toResponse(user);
         return ResponseEntity.ok(ApiResponse.success(userResponse));
     }
@@ -2,15 +2,17 @@ package com.harmonix.controller;
 
 import com.harmonix.constant.AppConstants;
 import com.harmonix.dto.response.ApiResponse;
+import com.harmonix.dto.response.UnreadCountResponse;
 import com.harmonix.entity.ChatHead;
-import com.harmonix.entity.User;
-import com.harmonix.repository.UserRepository;
-import com.harmonix.util.AuthUtil;
+import com.harmonix.security.AuthenticatedUser;
+import com.harmonix.security.CurrentUser;
 import com.harmonix.service.ChatHeadService;
-import jakarta.servlet.http.HttpServletRequest;
+import com.harmonix.service.ResourceVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,21 +23,40 @@ import java.util.List;
 public class ChatHeadController {
 
     private final ChatHeadService chatHeadService;
-    private final UserRepository userRepository;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping("/me")
-    public ResponseEntity<ApiResponse<List<ChatHead>>> getMyChatHeads(HttpServletRequest request) {
-        User user = AuthUtil.requireUser(request, userRepository);
+    public ResponseEntity<ApiResponse<List<ChatHead>>> getMyChatHeads(
+            @CurrentUser AuthenticatedUser user,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersions.etag(ResourceVersions.CHAT_HEADS, user.getId()))) {
+            return null;
+        }
         List<ChatHead> chatHeads = chatHeadService.getChatsForUser(user.getId());
-        return ResponseEntity.ok(ApiResponse.success(chatHeads));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success(chatHeads));
     }
     
+    @GetMapping("/me/unread")
+    public ResponseEntity<ApiResponse<UnreadCountResponse>> getMyUnreadCount(@CurrentUser AuthenticatedUser user) {
+        UnreadCountResponse unread = chatHeadService.getUnreadCount(user.getId());
+        return ResponseEntity.ok(ApiResponse.success(unread));
+    }
+
+    @PutMapping("/{chatId}/read")
+    public ResponseEntity<ApiResponse<String>> markAsRead(
+            @PathVariable String chatId,
+            @CurrentUser AuthenticatedUser user) {
+        chatHeadService.markAsRead(chatId, user.getId());
+        return ResponseEntity.ok(ApiResponse.success("Chat marked as read", null));
+    }
+
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<ChatHead>> createChatIfNotExists(
             @RequestParam("userId2") String userId2,
-            HttpServletRequest request) {
+            @CurrentUser AuthenticatedUser sender) {
         
-        User sender = AuthUtil.requireUser(request, userRepository);
         ChatHead chatHead = chatHeadService.createChatIfNotExists(sender.getId(), userId2);
         return ResponseEntity.ok(ApiResponse.success("Chat created successfully", chatHead));
     }
@@ -4,14 +4,12 @@ import com.harmonix.constant.AppConstants;
 import com.harmonix.dto.response.ApiResponse;
 import com.harmonix.entity.CollaborationRequest;
 import com.harmonix.entity.Message;
-import com.harmonix.entity.User;
 import com.harmonix.repository.CollaborationRequestRepository;
-import com.harmonix.repository.UserRepository;
-import com.harmonix.util.AuthUtil;
+import com.harmonix.security.AuthenticatedUser;
+import com.harmonix.security.CurrentUser;
 import com.harmonix.service.ChatHeadService;
 import com.harmonix.service.CollaborationRequestService;
 import com.harmonix.service.MessageService;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
@@ -31,15 +29,13 @@ public class CollaborationRequestController {
     private final CollaborationRequestService collaborationRequestService;
     private final MessageService messageService;
     private final ChatHeadService chatHeadService;
-    private final UserRepository userRepository;
     private final CollaborationRequestRepository collaborationRequestRepository;
 
     @PostMapping
     public ResponseEntity<ApiResponse<CollaborationRequest>> createRequest(
             @RequestBody CollaborationRequest req,
-            HttpServletRequest request) {
+            @CurrentUser AuthenticatedUser user) {
         
-        User user = AuthUtil.requireUser(request, userRepository);
         req.setCreatorId(user.getId());
         CollaborationRequest created = collaborationRequestService.create(req);
         return ResponseEntity.ok(ApiResponse.success("Collaboration request created", created));
@@ -48,9 +44,8 @@ public class CollaborationRequestController {
     @PostMapping("/{id}/accept")
     public ResponseEntity<ApiResponse<CollaborationRequest>> acceptRequest(
             @PathVariable String id,
-            HttpServletRequest request) {
+            @CurrentUser AuthenticatedUser user) {
         
-        User user = AuthUtil.requireUser(request, userRepository);
         CollaborationRequest accepted = collaborationRequestService.accept(id);
 
         chatHeadService.createChatIfNotExists(user.getId(), accepted.getCreatorId());
@@ -85,9 +80,8 @@ public class CollaborationRequestController {
     public ResponseEntity<ApiResponse<CollaborationRequest>> updateRequest(
             @PathVariable String id,
             @RequestBody CollaborationRequest updated,
-            HttpServletRequest request) {
+            @CurrentUser AuthenticatedUser user) {
         
-        User user = AuthUtil.requireUser(request, userRepository);
         CollaborationRequest updatedRequest = collaborationRequestService.update(id, updated, user.getId());
         return ResponseEntity.ok(ApiResponse.success("Request updated successfully", updatedRequest));
     }
@@ -95,9 +89,8 @@ public class CollaborationRequestController {
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<String>> deleteRequest(
             @PathVariable String id, 
-            HttpServletRequest request) {
+            @CurrentUser AuthenticatedUser user) {
         
-        User user = AuthUtil.requireUser(request, userRepository);
         collaborationRequestService.delete(id, user.getId());
         return ResponseEntity.ok(ApiResponse.success("Request deleted successfully", null));
     }
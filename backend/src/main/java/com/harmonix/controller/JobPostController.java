@@ -4,22 +4,28 @@ import com.harmonix.constant.AppConstants;
 import com.harmonix.dto.request.JobPostCreateRequest;
 import com.harmonix.dto.request.JobPostUpdateRequest;
 import com.harmonix.dto.response.ApiResponse;
+import com.harmonix.dto.response.CursorPageResponse;
+import com.harmonix.dto.response.JobPostMatchResponse;
 import com.harmonix.dto.response.JobPostResponse;
+import com.harmonix.dto.response.JobPostSummaryResponse;
 import com.harmonix.entity.JobPost;
-import com.harmonix.entity.User;
 import com.harmonix.exception.BadRequestException;
 import com.harmonix.exception.ResourceNotFoundException;
 import com.harmonix.repository.JobPostRepository;
-import com.harmonix.repository.UserRepository;
+import com.harmonix.security.AuthenticatedUser;
+import com.harmonix.security.CurrentUser;
 import com.harmonix.service.CloudinaryService;
 import com.harmonix.service.JobPostService;
-import com.harmonix.util.AuthUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.harmonix.service.ResourceVersions;
+import com.harmonix.service.SkillMatchingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -31,13 +37,14 @@ import java.util.List;
 public class JobPostController {
 
     private final JobPostService jobPostService;
-    private final UserRepository userRepository;
     private final JobPostRepository jobPostRepository;
     private final CloudinaryService cloudinaryService;
+    private final SkillMatchingService skillMatchingService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<ApiResponse<JobPostResponse>> createJobPost(
-            HttpServletRequest request,
+            @CurrentUser AuthenticatedUser user,
             @RequestPart("title") String title,
             @RequestPart("description") String description,
             @RequestPart("skillsNeeded") String skillsNeeded,
@@ -45,8 +52,6 @@ public class JobPostController {
             @RequestPart("availability") String availability,
             @RequestPart(value = "image", required = false) MultipartFile image
     ) {
-        User user = AuthUtil.requireUser(request, userRepository);
-
         String imageUrl = null;
         if (image != null && !image.isEmpty()) {
             imageUrl = cloudinaryService.uploadImage(image);
@@ -62,21 +67,66 @@ public class JobPostController {
                 .body(ApiResponse.success("Job post created successfully", response));
     }
 
+    /**
+     * Polled by the frontend: an unchanged collection is answered with 304 before any query
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<JobPostResponse>>> getAllJobPosts() {
+    public ResponseEntity<ApiResponse<List<JobPostResponse>>> getAllJobPosts(WebRequest request) {
+        if (request.checkNotModified(resourceVersions.etag(ResourceVersions.JOB_POSTS))) {
+            return null;
+        }
         List<JobPostResponse> jobPosts = jobPostService.getAllJobPosts();
-        return ResponseEntity.ok(ApiResponse.success(jobPosts));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(jobPosts));
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<CursorPageResponse<JobPostSummaryResponse>>> getJobPostFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String collaborationType,
+            @RequestParam(required = false) String availability,
+            @RequestParam(required = false) String userId) {
+        CursorPageResponse<JobPostSummaryResponse> feed = jobPostService.getJobPostFeed(
+                cursor, limit, collaborationType, availability, userId);
+        return ResponseEntity.ok(ApiResponse.success(feed));
+    }
+
+    @GetMapping("/matches")
+    public ResponseEntity<ApiResponse<List<JobPostMatchResponse>>> getMatchingJobPosts(
+            @RequestParam List<String> skills,
+            @RequestParam(defaultValue = "20") int k) {
+        List<JobPostMatchResponse> matches = skillMatchingService.findMatches(skills, k);
+        return ResponseEntity.ok(ApiResponse.success(matches));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<JobPostResponse>> getJobPostById(@PathVariable String id) {
-        JobPostResponse jobPost = jobPostService.getJobPostById(id);
-        return ResponseEntity.ok(ApiResponse.success(jobPost));
+    public ResponseEntity<byte[]> getJobPostById(@PathVariable String id, WebRequest request) {
+        if (request.checkNotModified(resourceVersions.etag(ResourceVersions.JOB_POSTS))) {
+            return null;
+        }
+        // Already the serialized ApiResponse body
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jobPostService.getJobPostByIdJson(id));
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<byte[]> getJobPostsByUserId(@PathVariable String userId, WebRequest request) {
+        if (request.checkNotModified(resourceVersions.etag(ResourceVersions.JOB_POSTS))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jobPostService.getJobPostsByUserIdJson(userId));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<JobPostResponse>> updateJobPost(
-            HttpServletRequest request,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable("id") String id,
             @RequestPart("title") String title,
             @RequestPart("description") String description,
@@ -85,8 +135,6 @@ public class JobPostController {
             @RequestPart("availability") String availability,
             @RequestPart(value = "image", required = false) MultipartFile image
     ) {
-        User user = AuthUtil.requireUser(request, userRepository);
-
         JobPost existingJob = jobPostRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("JobPost", "id", id));
 
@@ -110,11 +158,9 @@ public class JobPostController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<String>> deleteJobPost(
-            HttpServletRequest request,
+            @CurrentUser AuthenticatedUser user,
             @PathVariable("id") String id
     ) {
-        User user = AuthUtil.requireUser(request, userRepository);
-
         JobPost jobPost = jobPostRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("JobPost", "id", id));
 
@@ -2,17 +2,24 @@ package com.harmonix.controller;
 
 import com.harmonix.constant.AppConstants;
 import com.harmonix.dto.response.ApiResponse;
+import com.harmonix.dto.response.CursorPageResponse;
 import com.harmonix.entity.Message;
-import com.harmonix.entity.User;
-import com.harmonix.repository.MessageRepository;
-import com.harmonix.repository.UserRepository;
-import com.harmonix.util.AuthUtil;
+import com.harmonix.exception.ResourceNotFoundException;
+import com.harmonix.security.AuthenticatedUser;
+import com.harmonix.security.CurrentUser;
+import com.harmonix.service.ChatDeletionJob;
+import com.harmonix.service.ChatMembershipCache;
+import com.harmonix.service.MessageDeliveryService;
+import com.harmonix.service.MessageExportService;
 import com.harmonix.service.MessageService;
 import com.harmonix.service.ChatHeadService;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.List;
@@ -23,33 +30,113 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MessageController {
 
+    private static final MediaType NDJSON_GZIP = MediaType.parseMediaType("application/gzip");
+
     private final MessageService messageService;
-    private final UserRepository userRepository;
-    private final MessageRepository messageRepository;
     private final ChatHeadService chatHeadService;
+    private final MessageDeliveryService messageDeliveryService;
+    private final MessageExportService messageExportService;
+    private final ChatDeletionJob chatDeletionJob;
+    private final ChatMembershipCache chatMembershipCache;
 
     @PostMapping
     public ResponseEntity<ApiResponse<Message>> sendMessage(
             @RequestBody Message message, 
-            HttpServletRequest request) {
+            @CurrentUser AuthenticatedUser user) {
         
-        User user = AuthUtil.requireUser(request, userRepository);
         message.setSenderId(user.getId());
         message.setTimestamp(Instant.now());
         Message sentMessage = messageService.sendMessage(message);
         return ResponseEntity.ok(ApiResponse.success("Message sent successfully", sentMessage));
     }
 
+    /**
+     * Messages received since the caller's delivery cursor, across all chats
+     */
+    @GetMapping("/pending")
+    public ResponseEntity<ApiResponse<CursorPageResponse<Message>>> getPendingMessages(
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPageResponse<Message> page = messageDeliveryService.getPending(user.getId(), after, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @PutMapping("/delivery-cursor/{messageId}")
+    public ResponseEntity<ApiResponse<String>> acknowledgeDelivery(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable String messageId) {
+        messageDeliveryService.acknowledge(user.getId(), messageId);
+        return ResponseEntity.ok(ApiResponse.success("Delivery acknowledged", null));
+    }
+
     @GetMapping("/{chatId}")
-    public ResponseEntity<ApiResponse<List<Message>>> getChatHistory(@PathVariable String chatId) {
+    public ResponseEntity<ApiResponse<List<Message>>> getChatHistory(
+            @PathVariable String chatId,
+            @CurrentUser AuthenticatedUser user) {
+        checkParticipant(chatId, user);
         List<Message> messages = messageService.getChatHistory(chatId);
         return ResponseEntity.ok(ApiResponse.success(messages));
     }
 
+    @GetMapping("/{chatId}/page")
+    public ResponseEntity<ApiResponse<CursorPageResponse<Message>>> getChatHistoryPage(
+            @PathVariable String chatId,
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        checkParticipant(chatId, user);
+        CursorPageResponse<Message> page = messageService.getChatHistoryPage(chatId, before, after, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/{chatId}/around/{messageId}")
+    public ResponseEntity<ApiResponse<CursorPageResponse<Message>>> getMessagesAround(
+            @PathVariable String chatId,
+            @PathVariable String messageId,
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(required = false) Integer limit) {
+        checkParticipant(chatId, user);
+        CursorPageResponse<Message> page = messageService.getMessagesAround(chatId, messageId, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    /**
+     * Whole chat as NDJSON (one message per line, oldest first), optionally gzip'd
+     */
+    @GetMapping("/{chatId}/export")
+    public ResponseEntity<StreamingResponseBody> exportChat(
+            @PathVariable String chatId,
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        messageExportService.checkAccess(chatId, user.getId());
+        String filename = "chat-" + chatId + (gzip ? ".ndjson.gz" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(gzip ? NDJSON_GZIP : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> messageExportService.export(chatId, out, gzip));
+    }
+
+    /**
+     * Hides the chat at once; its messages are purged in the background
+     */
     @DeleteMapping("/{chatId}")
-    public ResponseEntity<ApiResponse<String>> deleteChat(@PathVariable String chatId) {
-        messageRepository.deleteByChatId(chatId);
-        chatHeadService.deleteByChatId(chatId);
+    public ResponseEntity<ApiResponse<String>> deleteChat(
+            @PathVariable String chatId,
+            @CurrentUser AuthenticatedUser user) {
+        chatHeadService.markDeleted(chatId, user.getId());
+        chatDeletionJob.wakeUp();
         return ResponseEntity.ok(ApiResponse.success("Chat deleted successfully", null));
     }
+
+    /**
+     * History, hot or archived, is only readable by the chat's participants
+     */
+    private void checkParticipant(String chatId, AuthenticatedUser user) {
+        if (!chatMembershipCache.isMember(chatId, user.getId())) {
+            throw new ResourceNotFoundException("Chat", "id", chatId);
+        }
+    }
 }
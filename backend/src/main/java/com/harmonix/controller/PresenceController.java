@@ -0,0 +1,33 @@
+package com.harmonix.controller;
+
+import com.harmonix.constant.AppConstants;
+import com.harmonix.dto.response.ApiResponse;
+import com.harmonix.dto.response.PresenceResponse;
+import com.harmonix.exception.BadRequestException;
+import com.harmonix.service.PresenceTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(AppConstants.PRESENCE_PATH)
+@CrossOrigin(origins = "${cors.allowed-origins}", allowCredentials = "true")
+@RequiredArgsConstructor
+public class PresenceController {
+
+    private final PresenceTracker presenceTracker;
+
+    @Value("${app.presence.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<PresenceResponse>>> getPresence(@RequestParam List<String> ids) {
+        if (ids.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " ids per request");
+        }
+        return ResponseEntity.ok(ApiResponse.success(presenceTracker.getPresence(ids)));
+    }
+}
@@ -0,0 +1,28 @@
+package com.harmonix.controller;
+
+import com.harmonix.constant.AppConstants;
+import com.harmonix.dto.response.ApiResponse;
+import com.harmonix.dto.response.SearchResultResponse;
+import com.harmonix.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(AppConstants.SEARCH_PATH)
+@CrossOrigin(origins = "${cors.allowed-origins}", allowCredentials = "true")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<SearchResultResponse>> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = SearchService.TYPE_ALL) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        SearchResultResponse result = searchService.search(query, type, page, size);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+}
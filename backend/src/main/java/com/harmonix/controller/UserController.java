@@ -8,12 +8,18 @@ import com.harmonix.entity.User;
 import com.harmonix.exception.ResourceNotFoundException;
 import com.harmonix.mapper.UserMapper;
 import com.harmonix.repository.UserRepository;
-import com.harmonix.util.AuthUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.harmonix.security.CurrentUser;
+import com.harmonix.service.ResourceVersions;
+import com.harmonix.service.UserPrincipalCache;
+import com.harmonix.util.CookieUtil;
+import com.harmonix.util.JwtUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,6 +32,8 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping("/{email}")
     public ResponseEntity<ApiResponse<UserResponse>> getUserByEmail(@PathVariable String email) {
@@ -38,28 +46,41 @@ public class UserController {
 
     @PutMapping("/type")
     public ResponseEntity<ApiResponse<String>> updateUserType(
-            HttpServletRequest request,
+            @CurrentUser User currentUser,
             @Valid @RequestBody UserTypeUpdateRequest updateRequest) {
 
-        User user = AuthUtil.requireUser(request, userRepository);
+        // Change the stored record, not the request's view of the caller
+        User user = userRepository.findById(currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUser.getId()));
         user.setUserType(updateRequest.getUserType());
         userRepository.save(user);
-        
-        return ResponseEntity.ok(
-                ApiResponse.success("User type updated to: " + updateRequest.getUserType(), null)
-        );
+        userPrincipalCache.invalidate(user.getEmail());
+        resourceVersions.bump(ResourceVersions.USERS);
+
+        // Reissue the token so its userType claim matches the stored user
+        String cookie = CookieUtil.createTokenCookie(JwtUtil.generateToken(user), false);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, cookie)
+                .body(ApiResponse.success("User type updated to: " + updateRequest.getUserType(), null));
     }
 
     @GetMapping("/bulk")
     public ResponseEntity<ApiResponse<List<UserResponse>>> getUsersByIds(
-            @RequestParam("ids") List<String> ids) {
-        
+            @RequestParam("ids") List<String> ids,
+            WebRequest request) {
+        if (request.checkNotModified(resourceVersions.etag(ResourceVersions.USERS))) {
+            return null;
+        }
+
         List<User> users = userRepository.findAllById(ids);
         List<UserResponse> userResponses = users.stream()
                 .map(userMapper::toResponse)
                 .collect(Collectors.toList());
         
-        return ResponseEntity.ok(ApiResponse.success(userResponses));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(userResponses));
     }
 
     @GetMapping("/by-email/{email}")
@@ -1,9 +1,17 @@
 package com.harmonix.controller;
 
+import com.harmonix.constant.AppConstants;
+import com.harmonix.dto.TypingIndicator;
 import com.harmonix.entity.Message;
 import com.harmonix.entity.User;
 import com.harmonix.repository.UserRepository;
+import com.harmonix.service.ChatMembershipCache;
+import com.harmonix.service.ChatPartitionedExecutor;
 import com.harmonix.service.MessageService;
+import com.harmonix.service.MessageStatusBuffer;
+import com.harmonix.service.MessageWriteBehind;
+import com.harmonix.service.PresenceTracker;
+import com.harmonix.service.TypingIndicatorAggregator;
 import com.harmonix.util.AuthUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +24,8 @@ import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * WebSocket controller for real-time chat messaging
@@ -29,35 +39,66 @@ public class WebSocketMessageController {
     private final MessageService messageService;
     private final SimpMessagingTemplate messagingTemplate;
     private final UserRepository userRepository;
+    private final MessageStatusBuffer messageStatusBuffer;
+    private final ChatPartitionedExecutor chatExecutor;
+    private final TypingIndicatorAggregator typingIndicatorAggregator;
+    private final PresenceTracker presenceTracker;
+    private final ChatMembershipCache chatMembershipCache;
 
     /**
      * Handle messages sent to /app/chat
-     * Broadcast to specific chat room
+     * Persisted and broadcast on the chat's lane, so messages in one chat keep their order
+     * The sender is the session user, never the payload
      */
     @MessageMapping("/chat")
     public void sendMessage(@Payload Message message, Principal principal) {
+        if (!isParticipant(principal, message.getChatId())) {
+            return;
+        }
+        if (!chatMembershipCache.isMember(message.getChatId(), message.getReceiverId())
+                || principal.getName().equals(message.getReceiverId())) {
+            log.warn("Dropping message from {} to {} outside chat {}",
+                    principal.getName(), message.getReceiverId(), message.getChatId());
+            return;
+        }
+        message.setSenderId(principal.getName());
+        chatExecutor.execute(message.getChatId(), () -> processMessage(message));
+    }
+
+    private void processMessage(Message message) {
         try {
-            // Set timestamp
-            message.setTimestamp(Instant.now());
-            message.setStatus("sent");
+            message.setStatus(AppConstants.STATUS_SENT);
             
-            // Save message to database
-            Message savedMessage = messageService.sendMessage(message);
+            // Save message to database (or queue it, in write-behind mode)
+            CompletableFuture<Message> persisted = messageService.submitMessage(message);
             
             log.info("WebSocket message sent - ChatId: {}, From: {}, To: {}", 
-                    savedMessage.getChatId(), savedMessage.getSenderId(), savedMessage.getReceiverId());
+                    message.getChatId(), message.getSenderId(), message.getReceiverId());
             
             // Send to specific chat room (both participants will receive)
             messagingTemplate.convertAndSend(
-                    "/topic/chat/" + savedMessage.getChatId(), 
-                    savedMessage
+                    "/topic/chat/" + message.getChatId(), 
+                    message
             );
             
-            // Also send to receiver's personal queue for notifications
-            messagingTemplate.convertAndSend(
-                    "/queue/messages/" + savedMessage.getReceiverId(), 
-                    savedMessage
-            );
+            // Also send to receiver's personal queue for notifications;
+            // offline receivers pick the message up from unread counts and history instead
+            if (presenceTracker.isKnownOffline(message.getReceiverId())) {
+                log.debug("Receiver {} offline, skipping queue push", message.getReceiverId());
+            } else {
+                messagingTemplate.convertAndSend(
+                        "/queue/messages/" + message.getReceiverId(), 
+                        message
+                );
+            }
+
+            // Tell the sender once the message is stored
+            if (messageService.getWriteMode() == MessageWriteBehind.Mode.ASYNC_WITH_ACK) {
+                persisted.whenComplete((saved, error) -> messagingTemplate.convertAndSend(
+                        "/queue/acks/" + message.getSenderId(),
+                        new MessageAck(message.getId(), message.getChatId(), error == null)
+                ));
+            }
             
         } catch (Exception e) {
             log.error("Error sending WebSocket message: {}", e.getMessage(), e);
@@ -66,23 +107,41 @@ public class WebSocketMessageController {
 
     /**
      * Handle typing indicator
+     * Coalesced into started/stopped transitions before anything is broadcast
      */
     @MessageMapping("/typing")
-    public void handleTyping(@Payload TypingIndicator indicator) {
-        messagingTemplate.convertAndSend(
-                "/topic/chat/" + indicator.getChatId() + "/typing", 
-                indicator
-        );
+    public void handleTyping(@Payload TypingIndicator indicator, Principal principal) {
+        if (!isParticipant(principal, indicator.getChatId())) {
+            return;
+        }
+        indicator.setUserId(principal.getName());
+        typingIndicatorAggregator.onFrame(indicator);
     }
 
     /**
      * Handle message status updates (delivered, read)
+     * Buffered as per-reader watermarks, flushed to the chat head in batches
      */
     @MessageMapping("/message/status")
-    public void updateMessageStatus(@Payload MessageStatusUpdate statusUpdate) {
+    public void updateMessageStatus(@Payload MessageStatusUpdate statusUpdate, Principal principal) {
+        if (!isParticipant(principal, statusUpdate.getChatId())) {
+            return;
+        }
+        statusUpdate.setUserId(principal.getName());
         try {
-            // Update message status in database if needed
-            log.info("Message status update - MessageId: {}, Status: {}", 
+            // The watermark only ever moves forward, so it comes from the stored message, never the client
+            Optional<Message> message = statusUpdate.getMessageId() != null
+                    ? messageService.findInChat(statusUpdate.getChatId(), statusUpdate.getMessageId())
+                    : Optional.empty();
+            if (message.isEmpty()) {
+                log.warn("Dropping status update from {}: message {} not found in chat {}",
+                        principal.getName(), statusUpdate.getMessageId(), statusUpdate.getChatId());
+                return;
+            }
+            statusUpdate.setTimestamp(message.get().getTimestamp());
+            messageStatusBuffer.record(statusUpdate.getChatId(), statusUpdate.getUserId(),
+                    statusUpdate.getStatus(), statusUpdate.getTimestamp());
+            log.debug("Message status update - MessageId: {}, Status: {}",
                     statusUpdate.getMessageId(), statusUpdate.getStatus());
             
             // Broadcast status update
@@ -95,24 +154,36 @@ public class WebSocketMessageController {
         }
     }
 
+    /**
+     * Frames from users outside the chat are dropped rather than answered
+     */
+    private boolean isParticipant(Principal principal, String chatId) {
+        if (principal == null || !chatMembershipCache.isMember(chatId, principal.getName())) {
+            log.warn("Dropping frame from {} for chat {}: not a participant",
+                    principal != null ? principal.getName() : "anonymous session", chatId);
+            return false;
+        }
+        return true;
+    }
+
     // Inner classes for WebSocket payloads
     @lombok.Data
     @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
-    public static class TypingIndicator {
+    public static class MessageStatusUpdate {
+        private String messageId;
         private String chatId;
+        private String status; // "delivered", "read"
         private String userId;
-        private String userName;
-        private boolean isTyping;
+        private Instant timestamp; // of the acknowledged message; everything up to it is covered
     }
 
     @lombok.Data
     @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
-    public static class MessageStatusUpdate {
+    public static class MessageAck {
         private String messageId;
         private String chatId;
-        private String status; // "delivered", "read"
-        private String userId;
+        private boolean stored;
     }
 }
@@ -0,0 +1,19 @@
+package com.harmonix.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Typing state of a user in a chat, received from and broadcast to STOMP clients.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypingIndicator {
+
+    private String chatId;
+    private String userId;
+    private String userName;
+    private boolean isTyping;
+}
@@ -0,0 +1,16 @@
+package com.harmonix.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobPostMatchResponse {
+
+    private double score;
+    private JobPostSummaryResponse jobPost;
+}
@@ -0,0 +1,24 @@
+package com.harmonix.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobPostSummaryResponse {
+
+    private String id;
+    private String userId;
+    private String title;
+    private String skillsNeeded;
+    private String collaborationType;
+    private String availability;
+    private String imageUrl;
+    private LocalDateTime postedAt;
+}
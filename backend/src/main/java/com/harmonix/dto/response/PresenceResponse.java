@@ -0,0 +1,19 @@
+package com.harmonix.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceResponse {
+
+    private String userId;
+    private boolean online;
+    private Instant lastSeen;
+}
@@ -0,0 +1,21 @@
+package com.harmonix.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultResponse {
+
+    private String query;
+    private int page;
+    private int size;
+    private boolean hasMore;
+    private List<SearchHitResponse> hits;
+}
@@ -5,16 +5,21 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "chat_heads")
+@CompoundIndex(name = "participants_lastUpdated", def = "{'participants': 1, 'lastUpdated': -1}")
 public class ChatHead {
     
     @Id
@@ -26,5 +31,20 @@ public class ChatHead {
 
     private String lastSenderId;
     private String lastMessageType;
-    private boolean unread;
+
+    // Unread message count per participant id
+    @Builder.Default
+    private Map<String, Integer> unreadCounts = new HashMap<>();
+
+    // Per participant: every message up to this timestamp is delivered / read
+    @Builder.Default
+    private Map<String, Instant> deliveredUpTo = new HashMap<>();
+    @Builder.Default
+    private Map<String, Instant> readUpTo = new HashMap<>();
+
+    // Tombstone: messages up to this instant are hidden and purged in the
+    // background; the head itself is hidden until a newer message arrives
+    @Indexed(sparse = true)
+    private Instant deletedAt;
+    private Long purgedMessages;
 }
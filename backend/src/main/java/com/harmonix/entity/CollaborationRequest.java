@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -19,9 +21,12 @@ public class CollaborationRequest {
     @Id
     private String id;
     
+    @Indexed(name = "creatorId")
     private String creatorId;
     private String creatorEmail;
+    @TextIndexed(weight = 3)
     private String title;
+    @TextIndexed
     private String description;
     
     private Instant createdAt;
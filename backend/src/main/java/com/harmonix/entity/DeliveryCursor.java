@@ -0,0 +1,29 @@
+package com.harmonix.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The newest message a user has acknowledged across all of their chats.
+ * Everything received after (timestamp, messageId) is replayed on reconnect.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "delivery_cursors")
+public class DeliveryCursor {
+
+    @Id
+    private String userId;
+
+    private Instant timestamp;
+    private String messageId;
+    private Instant updatedAt;
+}
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -14,14 +17,23 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "job_posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "postedAt_id", def = "{'postedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_postedAt_id", def = "{'userId': 1, 'postedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "collaborationType_postedAt_id", def = "{'collaborationType': 1, 'postedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "availability_postedAt_id", def = "{'availability': 1, 'postedAt': -1, '_id': -1}")
+})
 public class JobPost {
 
     @Id
     private String id;
 
     private String userId;
+    @TextIndexed(weight = 3)
     private String title;
+    @TextIndexed
     private String description;
+    @TextIndexed(weight = 2)
     private String skillsNeeded;
     private String collaborationType;
     private String availability;
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -14,6 +16,11 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "messages")
+@CompoundIndexes({
+        @CompoundIndex(name = "chat_timestamp_id", def = "{'chatId': 1, 'timestamp': -1, '_id': -1}"),
+        // Reconnect replay: everything a user received after their delivery cursor
+        @CompoundIndex(name = "receiver_timestamp_id", def = "{'receiverId': 1, 'timestamp': 1, '_id': 1}")
+})
 public class Message {
     
     @Id
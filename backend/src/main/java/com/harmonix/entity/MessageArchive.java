@@ -0,0 +1,39 @@
+package com.harmonix.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A run of consecutive old messages of one chat, moved out of the hot
+ * {@code messages} collection by the compactor and stored compressed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "message_archives")
+@CompoundIndex(name = "chat_fromTimestamp", def = "{'chatId': 1, 'fromTimestamp': 1}")
+public class MessageArchive {
+
+    // chatId:firstMessageId, so archiving the same run again replaces it
+    @Id
+    private String id;
+
+    private String chatId;
+    private Instant fromTimestamp;
+    @Indexed
+    private Instant toTimestamp;
+    private int messageCount;
+
+    // gzip'd JSON array of the messages, oldest first
+    private byte[] payload;
+    private Instant archivedAt;
+}
@@ -3,6 +3,7 @@ package com.harmonix.mapper;
 import com.harmonix.dto.request.JobPostCreateRequest;
 import com.harmonix.dto.request.JobPostUpdateRequest;
 import com.harmonix.dto.response.JobPostResponse;
+import com.harmonix.dto.response.JobPostSummaryResponse;
 import com.harmonix.entity.JobPost;
 import org.springframework.stereotype.Component;
 
@@ -48,6 +49,23 @@ public class JobPostMapper {
                 .build();
     }
 
+    public JobPostSummaryResponse toSummary(JobPost jobPost) {
+        if (jobPost == null) {
+            return null;
+        }
+
+        return JobPostSummaryResponse.builder()
+                .id(jobPost.getId())
+                .userId(jobPost.getUserId())
+                .title(jobPost.getTitle())
+                .skillsNeeded(jobPost.getSkillsNeeded())
+                .collaborationType(jobPost.getCollaborationType())
+                .availability(jobPost.getAvailability())
+                .imageUrl(jobPost.getImageUrl())
+                .postedAt(jobPost.getPostedAt())
+                .build();
+    }
+
     public void updateEntity(JobPost jobPost, JobPostUpdateRequest request) {
         if (request.getTitle() != null) {
             jobPost.setTitle(request.getTitle());
@@ -0,0 +1,45 @@
+package com.harmonix.security;
+
+import com.harmonix.entity.User;
+import com.harmonix.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.security.Principal;
+
+/**
+ * Identity of the caller as carried in the signed token: enough for
+ * ownership checks and queries by user id without loading the user document.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class AuthenticatedUser implements Principal {
+
+    private final String id;
+    private final String email;
+    private final String userType;
+
+    /**
+     * Builds the principal from verified claims, or returns null for legacy
+     * email-only tokens that do not carry the user id.
+     */
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        String id = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        if (id == null) {
+            return null;
+        }
+        return new AuthenticatedUser(id, claims.getSubject(), claims.get(JwtUtil.CLAIM_USER_TYPE, String.class));
+    }
+
+    public static AuthenticatedUser fromUser(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getUserType());
+    }
+
+    @Override
+    public String getName() {
+        return id;
+    }
+}
@@ -0,0 +1,67 @@
+package com.harmonix.security;
+
+import com.harmonix.entity.User;
+import com.harmonix.exception.UnauthorizedException;
+import com.harmonix.service.UserPrincipalCache;
+import com.harmonix.util.AuthUtil;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters. {@link AuthenticatedUser} parameters
+ * are built straight from the token claims; {@link User} parameters load the
+ * full document through {@link UserPrincipalCache}.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserPrincipalCache userPrincipalCache;
+    private final boolean acceptLegacyTokens;
+
+    public CurrentUserArgumentResolver(
+            UserPrincipalCache userPrincipalCache,
+            @Value("${jwt.accept-legacy-tokens:true}") boolean acceptLegacyTokens) {
+        this.userPrincipalCache = userPrincipalCache;
+        this.acceptLegacyTokens = acceptLegacyTokens;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        if (!parameter.hasParameterAnnotation(CurrentUser.class)) {
+            return false;
+        }
+        Class<?> type = parameter.getParameterType();
+        return User.class.isAssignableFrom(type) || AuthenticatedUser.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public Object resolveArgument(
+            MethodParameter parameter,
+            ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest,
+            WebDataBinderFactory binderFactory
+    ) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        Claims claims = AuthUtil.requireClaims(request);
+
+        if (User.class.isAssignableFrom(parameter.getParameterType())) {
+            return userPrincipalCache.getByEmail(claims.getSubject());
+        }
+
+        AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+        if (principal != null) {
+            return principal;
+        }
+        if (!acceptLegacyTokens) {
+            throw new UnauthorizedException("Token format is no longer supported, please sign in again");
+        }
+        return AuthenticatedUser.fromUser(userPrincipalCache.getByEmail(claims.getSubject()));
+    }
+}
@@ -1,10 +1,12 @@
 package com.harmonix.security;
 
 import com.harmonix.constant.AppConstants;
+import com.harmonix.util.AuthUtil;
 import com.harmonix.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -32,23 +34,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (request.getCookies() != null) {
-            for (Cookie cookie : request.getCookies()) {
-                if (AppConstants.TOKEN_COOKIE_NAME.equals(cookie.getName())) {
-                    String email = JwtUtil.validateAndGetEmail(cookie.getValue());
-                    if (email != null) {
-                        UsernamePasswordAuthenticationToken auth =
-                                new UsernamePasswordAuthenticationToken(
-                                        email, null, null
-                                );
-                        auth.setDetails(
-                                new WebAuthenticationDetailsSource()
-                                        .buildDetails(request)
+        String token = AuthUtil.extractTokenFromCookies(request);
+        if (token != null) {
+            try {
+                // Verified once here; AuthUtil reads the claims back from the request
+                Claims claims = JwtUtil.verify(token);
+                request.setAttribute(AppConstants.AUTH_CLAIMS_ATTRIBUTE, claims);
+
+                // Legacy email-only tokens carry no id; fall back to the email as principal
+                AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
+                UsernamePasswordAuthenticationToken auth =
+                        new UsernamePasswordAuthenticationToken(
+                                principal != null ? principal : claims.getSubject(), null, null
                         );
-                        SecurityContextHolder.getContext()
-                                .setAuthentication(auth);
-                    }
-                }
+                auth.setDetails(
+                        new WebAuthenticationDetailsSource()
+                                .buildDetails(request)
+                );
+                SecurityContextHolder.getContext()
+                        .setAuthentication(auth);
+            } catch (JwtException | IllegalArgumentException e) {
+                request.setAttribute(AppConstants.AUTH_ERROR_ATTRIBUTE, e.getMessage());
             }
         }
 
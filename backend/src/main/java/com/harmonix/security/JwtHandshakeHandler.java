@@ -0,0 +1,30 @@
+package com.harmonix.security;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Makes the {@link AuthenticatedUser} resolved by {@link JwtAuthFilter} from
+ * the token cookie the principal of the WebSocket session, so session
+ * events and {@code Principal} arguments carry the user id. Handshakes
+ * without a token, or with a legacy email-only token, stay anonymous.
+ */
+@Component
+public class JwtHandshakeHandler extends DefaultHandshakeHandler {
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                      Map<String, Object> attributes) {
+        if (request.getPrincipal() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        return null;
+    }
+}
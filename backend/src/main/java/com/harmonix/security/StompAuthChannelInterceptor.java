@@ -0,0 +1,118 @@
+package com.harmonix.security;
+
+import com.harmonix.service.ChatMembershipCache;
+import com.harmonix.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates a STOMP session once, at CONNECT, and authorises SUBSCRIBE
+ * and SEND frames against the bound user.
+ *
+ * The user normally comes from the token cookie at the WebSocket handshake
+ * ({@link JwtHandshakeHandler}); clients that cannot send the cookie may
+ * pass the token in an {@code Authorization: Bearer} or {@code token}
+ * CONNECT header instead. Chat topics are checked against
+ * {@link ChatMembershipCache}, personal queues against the user id, and
+ * clients may only SEND to application destinations.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String CHAT_TOPIC_PREFIX = "/topic/chat/";
+    private static final String QUEUE_PREFIX = "/queue/";
+    private static final String APP_PREFIX = "/app/";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ChatMembershipCache chatMembershipCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT -> authenticate(accessor);
+            case SUBSCRIBE -> authorizeSubscribe(requireUser(accessor), accessor.getDestination());
+            case SEND -> authorizeSend(requireUser(accessor), accessor.getDestination());
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof AuthenticatedUser) {
+            return;
+        }
+        String token = tokenFromHeaders(accessor);
+        if (token == null) {
+            throw new MessageDeliveryException("Authentication required");
+        }
+        AuthenticatedUser user;
+        try {
+            user = AuthenticatedUser.fromClaims(JwtUtil.verify(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+        if (user == null) {
+            throw new MessageDeliveryException("Token does not identify a user; sign in again");
+        }
+        accessor.setUser(user);
+    }
+
+    /**
+     * Checks a SUBSCRIBE destination: chat topics need membership, personal
+     * queues must belong to the subscriber.
+     */
+    public void authorizeSubscribe(Principal user, String destination) {
+        if (destination == null) {
+            throw new MessageDeliveryException("Destination required");
+        }
+        if (destination.startsWith(CHAT_TOPIC_PREFIX)) {
+            String chatId = destination.substring(CHAT_TOPIC_PREFIX.length()).split("/", 2)[0];
+            if (!chatMembershipCache.isMember(chatId, user.getName())) {
+                throw new MessageDeliveryException("Not a participant of chat " + chatId);
+            }
+        } else if (destination.startsWith(QUEUE_PREFIX)) {
+            String owner = destination.substring(destination.lastIndexOf('/') + 1);
+            if (!owner.equals(user.getName())) {
+                throw new MessageDeliveryException("Cannot subscribe to another user's queue");
+            }
+        }
+    }
+
+    private void authorizeSend(Principal user, String destination) {
+        // Broker destinations are written by the server only
+        if (destination == null || !destination.startsWith(APP_PREFIX)) {
+            throw new MessageDeliveryException("Clients may only send to " + APP_PREFIX + "**");
+        }
+    }
+
+    private Principal requireUser(StompHeaderAccessor accessor) {
+        Principal user = accessor.getUser();
+        if (user == null) {
+            throw new MessageDeliveryException("Not authenticated");
+        }
+        return user;
+    }
+
+    private String tokenFromHeaders(StompHeaderAccessor accessor) {
+        String authorization = accessor.getFirstNativeHeader("Authorization");
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            return authorization.substring(BEARER_PREFIX.length());
+        }
+        return accessor.getFirstNativeHeader("token");
+    }
+}
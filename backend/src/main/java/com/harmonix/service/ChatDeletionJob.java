@@ -0,0 +1,189 @@
+package com.harmonix.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.harmonix.entity.ChatHead;
+import com.harmonix.entity.Message;
+import com.harmonix.entity.MessageArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Purges the messages of deleted chats in the background.
+ *
+ * Deleting a chat only writes a tombstone ({@code deletedAt}) on its head.
+ * A single worker thread picks up tombstoned heads and removes their
+ * messages up to the tombstone in batches of {@code batch-size} ids, paced
+ * by a rate limiter so a large chat cannot saturate Mongo. Progress is kept
+ * on the head ({@code purgedMessages}), and since the work list is simply
+ * every head that still has a tombstone, a restart resumes where it left off.
+ *
+ * Once no messages remain, archived runs up to the tombstone are dropped
+ * and the head is removed, or, if the chat has been
+ * written to since, only the tombstone is cleared.
+ */
+@Component
+@Slf4j
+public class ChatDeletionJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMembershipCache chatMembershipCache;
+    private final ResourceVersions resourceVersions;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final RateLimiter rateLimiter;
+    private final AtomicInteger pendingChats = new AtomicInteger();
+    private final Counter deletedMessages;
+    private final Counter completedChats;
+    private final Timer batchTimer;
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ChatDeletionJob(
+            MongoTemplate mongoTemplate,
+            ChatMembershipCache chatMembershipCache,
+            ResourceVersions resourceVersions,
+            MeterRegistry meterRegistry,
+            @Value("${app.chat-deletion.enabled:true}") boolean enabled,
+            @Value("${app.chat-deletion.batch-size:1000}") int batchSize,
+            @Value("${app.chat-deletion.max-deletes-per-second:5000}") double maxDeletesPerSecond,
+            @Value("${app.chat-deletion.poll-interval-ms:60000}") long pollIntervalMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatMembershipCache = chatMembershipCache;
+        this.resourceVersions = resourceVersions;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.rateLimiter = RateLimiter.create(maxDeletesPerSecond);
+        meterRegistry.gauge("chat.deletion.pending", pendingChats);
+        this.deletedMessages = meterRegistry.counter("chat.deletion.messages");
+        this.completedChats = meterRegistry.counter("chat.deletion.completed");
+        this.batchTimer = meterRegistry.timer("chat.deletion.batch");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "chat-deletion");
+        worker.start();
+        log.info("Chat deletion job started (batch {}, {} deletes/s)", batchSize, rateLimiter.getRate());
+    }
+
+    /**
+     * Starts a pass now instead of at the next poll, e.g. right after a chat is tombstoned.
+     */
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                purgeTombstonedChats();
+            } catch (RuntimeException e) {
+                log.error("Chat deletion pass failed: {}", e.getMessage(), e);
+            }
+            try {
+                wakeUp.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void purgeTombstonedChats() {
+        Query query = Query.query(Criteria.where("deletedAt").exists(true));
+        query.fields().include("deletedAt");
+        List<ChatHead> tombstones = mongoTemplate.find(query, ChatHead.class);
+        pendingChats.set(tombstones.size());
+        for (ChatHead head : tombstones) {
+            if (!running) {
+                return;
+            }
+            purge(head.getId(), head.getDeletedAt());
+            pendingChats.decrementAndGet();
+        }
+    }
+
+    private void purge(String chatId, Instant deletedAt) {
+        String collection = mongoTemplate.getCollectionName(Message.class);
+        Query batch = Query.query(Criteria.where("chatId").is(chatId).and("timestamp").lte(deletedAt))
+                .limit(batchSize);
+        batch.fields().include("_id");
+        Query head = Query.query(Criteria.where("id").is(chatId));
+
+        while (running) {
+            List<Object> ids = mongoTemplate.find(batch, Document.class, collection).stream()
+                    .map(document -> document.get("_id"))
+                    .toList();
+            if (ids.isEmpty()) {
+                finish(chatId, deletedAt);
+                return;
+            }
+            rateLimiter.acquire(ids.size());
+            long deleted = batchTimer.record(() -> mongoTemplate
+                    .remove(Query.query(Criteria.where("_id").in(ids)), collection)
+                    .getDeletedCount());
+            deletedMessages.increment(deleted);
+            mongoTemplate.updateFirst(head, new Update().inc("purgedMessages", deleted), ChatHead.class);
+        }
+    }
+
+    private void finish(String chatId, Instant deletedAt) {
+        // Both writes are conditional on the tombstone, so a chat deleted again
+        // meanwhile keeps its newer one; a head written to since the deletion survives
+        mongoTemplate.remove(Query.query(Criteria.where("chatId").is(chatId).and("toTimestamp").lte(deletedAt)),
+                MessageArchive.class);
+
+        Criteria sameTombstone = Criteria.where("id").is(chatId).and("deletedAt").is(deletedAt);
+        Query untouched = Query.query(sameTombstone.orOperator(
+                Criteria.where("lastUpdated").lte(deletedAt),
+                Criteria.where("lastUpdated").exists(false)
+        ));
+        if (mongoTemplate.remove(untouched, ChatHead.class).getDeletedCount() == 0) {
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("id").is(chatId).and("deletedAt").is(deletedAt)),
+                    new Update().unset("deletedAt").unset("purgedMessages"),
+                    ChatHead.class);
+        }
+        resourceVersions.bumpUsers(chatMembershipCache.getParticipants(chatId));
+        chatMembershipCache.invalidate(chatId);
+        completedChats.increment();
+        log.info("Purged messages of deleted chat {}", chatId);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        wakeUp.release();
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        log.info("Chat deletion job stopped");
+    }
+}
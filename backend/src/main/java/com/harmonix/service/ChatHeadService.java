@@ -1,9 +1,19 @@
 package com.harmonix.service;
 
+import com.harmonix.dto.response.UnreadCountResponse;
 import com.harmonix.entity.ChatHead;
 import com.harmonix.entity.Message;
+import com.harmonix.exception.ResourceNotFoundException;
 import com.harmonix.repository.ChatHeadRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.stream.Collectors;
@@ -11,59 +21,219 @@ import java.util.stream.Stream;
 
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ChatHeadService {
+
+    private static final String UNREAD_COUNTS = "unreadCounts";
     
     private final ChatHeadRepository chatHeadRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ChatMembershipCache chatMembershipCache;
+    private final ResourceVersions resourceVersions;
+
+    /**
+     * Tombstones the chat: it disappears from reads straight away and
+     * {@link ChatDeletionJob} purges its messages in the background. Unread
+     * counts are cleared so the chat does not linger in the badge total.
+     * Only a participant of an existing chat can delete it.
+     */
+    public Instant markDeleted(String chatId, String userId) {
+        if (!chatMembershipCache.isMember(chatId, userId)) {
+            throw new ResourceNotFoundException("Chat", "id", chatId);
+        }
+        Instant deletedAt = Instant.now();
+        Update update = new Update()
+                .set("deletedAt", deletedAt)
+                .set("purgedMessages", 0L)
+                .set(UNREAD_COUNTS, Map.of());
+        Query query = Query.query(Criteria.where("id").is(chatId).and("participants").is(userId));
+        if (mongoTemplate.updateFirst(query, update, ChatHead.class).getMatchedCount() == 0) {
+            throw new ResourceNotFoundException("Chat", "id", chatId);
+        }
+        resourceVersions.bumpUsers(chatMembershipCache.getParticipants(chatId));
+        return deletedAt;
+    }
 
-    public void deleteByChatId(String chatId) {
-        chatHeadRepository.deleteById(chatId);
+    /**
+     * The chat's tombstone, or null when no deletion is pending. Messages up
+     * to this instant are hidden even if the chat has been written to since.
+     */
+    @Transactional(readOnly = true)
+    public Instant getDeletedAt(String chatId) {
+        Query query = Query.query(Criteria.where("id").is(chatId).and("deletedAt").exists(true));
+        query.fields().include("deletedAt");
+        ChatHead head = mongoTemplate.findOne(query, ChatHead.class);
+        return head != null ? head.getDeletedAt() : null;
     }
 
+    /**
+     * Tombstones of the given chats, for those that have one.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Instant> getDeletedAt(Collection<String> chatIds) {
+        Query query = Query.query(Criteria.where("id").in(chatIds).and("deletedAt").exists(true));
+        query.fields().include("deletedAt");
+        return mongoTemplate.find(query, ChatHead.class).stream()
+                .collect(Collectors.toMap(ChatHead::getId, ChatHead::getDeletedAt));
+    }
+
+    /**
+     * Records the message as the chat's latest in one upsert. The filter only
+     * matches a head whose {@code lastUpdated} is not newer than the message,
+     * so an out-of-order send cannot overwrite a later one. The same write
+     * bumps the receiver's unread count and clears the sender's.
+     */
     public void updateChatHeadFromMessage(Message message) {
-        String chatId = message.getChatId();
-        Optional<ChatHead> existing = chatHeadRepository.findById(chatId);
-
-        ChatHead chatHead = existing.orElse(
-                ChatHead.builder()
-                        .id(chatId)
-                        .participants(List.of(message.getSenderId(), message.getReceiverId()))
-                        .build()
-        );
+        updateChatHead(List.of(message));
+    }
+
+    /**
+     * Batch form used by the write-behind pipeline: messages are grouped by
+     * chat and each chat gets a single upsert carrying its latest message and
+     * the net unread changes of the whole group.
+     */
+    public void updateChatHeadsFromMessages(Collection<Message> messages) {
+        messages.stream()
+                .collect(Collectors.groupingBy(Message::getChatId, LinkedHashMap::new, Collectors.toList()))
+                .values()
+                .forEach(this::updateChatHead);
+    }
+
+    private void updateChatHead(List<Message> chatMessages) {
+        List<Message> ordered = chatMessages.stream()
+                .sorted(Comparator.comparing(this::timestampOf))
+                .toList();
+        Message latest = ordered.get(ordered.size() - 1);
+        String chatId = latest.getChatId();
+        Instant timestamp = timestampOf(latest);
+
+        // Sending clears the sender's count; only messages received after
+        // their last send in the group are left unread
+        Map<String, Integer> unread = new LinkedHashMap<>();
+        Set<String> resets = new HashSet<>();
+        for (Message message : ordered) {
+            if (!message.getSenderId().equals(message.getReceiverId())) {
+                resets.add(message.getSenderId());
+                unread.put(message.getSenderId(), 0);
+            }
+            unread.merge(message.getReceiverId(), 1, Integer::sum);
+        }
+
+        Query guarded = Query.query(Criteria.where("id").is(chatId).orOperator(
+                Criteria.where("lastUpdated").lte(timestamp),
+                Criteria.where("lastUpdated").exists(false)
+        ));
+        Update update = unreadUpdate(unread, resets)
+                .set("lastMessage", latest.getMessage())
+                .set("lastUpdated", timestamp)
+                .set("lastSenderId", latest.getSenderId())
+                .set("lastMessageType", latest.getType())
+                .setOnInsert("participants", List.of(latest.getSenderId(), latest.getReceiverId()));
+
+        try {
+            mongoTemplate.upsert(guarded, update, ChatHead.class);
+        } catch (DuplicateKeyException e) {
+            // The head exists but the guard did not match, or a concurrent first
+            // send inserted it; retry as a plain update, and if a newer message
+            // is already recorded only apply the unread counts
+            if (mongoTemplate.updateFirst(guarded, update, ChatHead.class).getMatchedCount() == 0) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(chatId)),
+                        unreadUpdate(unread, resets), ChatHead.class);
+            }
+        }
+        resourceVersions.bumpUsers(unread.keySet());
+    }
 
-        chatHead.setLastMessage(message.getMessage());
-        chatHead.setLastUpdated(Instant.now());
-        chatHead.setLastSenderId(message.getSenderId());
-        chatHead.setLastMessageType(message.getType());
+    private Update unreadUpdate(Map<String, Integer> unread, Set<String> resets) {
+        Update update = new Update();
+        unread.forEach((userId, count) -> {
+            if (resets.contains(userId)) {
+                update.set(unreadPath(userId), count);
+            } else {
+                update.inc(unreadPath(userId), count);
+            }
+        });
+        return update;
+    }
 
-        chatHeadRepository.save(chatHead);
+    private Instant timestampOf(Message message) {
+        return message.getTimestamp() != null ? message.getTimestamp() : Instant.now();
     }
 
     public List<ChatHead> getChatsForUser(String userId) {
-        return chatHeadRepository.findByParticipantsContaining(userId);
+        return chatHeadRepository.findByParticipantsContaining(userId).stream()
+                .filter(head -> !isHidden(head))
+                .toList();
+    }
+
+    /**
+     * A deleted chat stays hidden until a message newer than the deletion.
+     */
+    static boolean isHidden(ChatHead head) {
+        Instant deletedAt = head.getDeletedAt();
+        return deletedAt != null && (head.getLastUpdated() == null || !head.getLastUpdated().isAfter(deletedAt));
+    }
+
+    /**
+     * Clears the user's unread count for one chat.
+     */
+    public void markAsRead(String chatId, String userId) {
+        Query query = Query.query(Criteria.where("id").is(chatId).and("participants").is(userId));
+        if (mongoTemplate.updateFirst(query, new Update().set(unreadPath(userId), 0), ChatHead.class).getMatchedCount() == 0) {
+            throw new ResourceNotFoundException("ChatHead", "id", chatId);
+        }
+        resourceVersions.bumpUsers(chatMembershipCache.getParticipants(chatId));
+    }
+
+    /**
+     * Sums the user's unread counts across their chats in one aggregation
+     * served by the participants index.
+     */
+    public UnreadCountResponse getUnreadCount(String userId) {
+        String path = unreadPath(userId);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("participants").is(userId).and(path).gt(0)),
+                Aggregation.group().sum(path).as("total").count().as("chats")
+        );
+        Document result = mongoTemplate.aggregate(aggregation,
+                mongoTemplate.getCollectionName(ChatHead.class), Document.class).getUniqueMappedResult();
+        if (result == null) {
+            return new UnreadCountResponse(0, 0);
+        }
+        return new UnreadCountResponse(
+                ((Number) result.get("total")).longValue(),
+                ((Number) result.get("chats")).intValue());
     }
 
     public ChatHead createChatIfNotExists(String userId1, String userId2) {
         String chatId = generateChatId(userId1, userId2);
-        Optional<ChatHead> existing = chatHeadRepository.findById(chatId);
 
-        if (existing.isPresent()) return existing.get();
-
-        ChatHead newChat = ChatHead.builder()
-                .id(chatId)
-                .participants(List.of(userId1, userId2))
-                .lastMessage("Chat initiated via collaboration request.")
-                .lastUpdated(Instant.now())
-                .lastSenderId(userId1)
-                .lastMessageType("text")
-                .build();
+        Query query = Query.query(Criteria.where("id").is(chatId));
+        Update update = new Update()
+                .setOnInsert("participants", List.of(userId1, userId2))
+                .setOnInsert("lastMessage", "Chat initiated via collaboration request.")
+                .setOnInsert("lastUpdated", Instant.now())
+                .setOnInsert("lastSenderId", userId1)
+                .setOnInsert("lastMessageType", "text");
+
+        ChatHead chatHead = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ChatHead.class);
+        resourceVersions.bumpUsers(List.of(userId1, userId2));
+        return chatHead;
+    }
 
-        return chatHeadRepository.save(newChat);
+    private String unreadPath(String userId) {
+        return UNREAD_COUNTS + "." + userId;
     }
 
     private String generateChatId(String a, String b) {
@@ -0,0 +1,71 @@
+package com.harmonix.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.harmonix.entity.ChatHead;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Bounded cache of chat participants, so STOMP frames can be authorised
+ * against a chat without a Mongo lookup each. A chat without a head yet
+ * (before its first message) falls back to the two user ids its id is
+ * built from.
+ */
+@Service
+public class ChatMembershipCache {
+
+    private static final String CACHE_NAME = "chatMembership";
+
+    private final MongoTemplate mongoTemplate;
+    private final LoadingCache<String, Set<String>> participants;
+
+    public ChatMembershipCache(
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.chat-membership.max-size:50000}") long maxSize,
+            @Value("${app.cache.chat-membership.ttl:10m}") Duration ttl) {
+        this.mongoTemplate = mongoTemplate;
+        this.participants = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::loadParticipants);
+        CaffeineCacheMetrics.monitor(meterRegistry, participants, CACHE_NAME);
+    }
+
+    public boolean isMember(String chatId, String userId) {
+        if (chatId == null || userId == null) {
+            return false;
+        }
+        return participants.get(chatId).contains(userId);
+    }
+
+    public Set<String> getParticipants(String chatId) {
+        return participants.get(chatId);
+    }
+
+    public void invalidate(String chatId) {
+        participants.invalidate(chatId);
+    }
+
+    protected Set<String> loadParticipants(String chatId) {
+        Query query = Query.query(Criteria.where("id").is(chatId));
+        query.fields().include("participants");
+        ChatHead head = mongoTemplate.findOne(query, ChatHead.class);
+        if (head != null && head.getParticipants() != null && !head.getParticipants().isEmpty()) {
+            return Set.copyOf(head.getParticipants());
+        }
+        // Chat ids are the two participant ids, sorted and joined with '_'
+        String[] ids = chatId.split("_");
+        return ids.length == 2 ? Set.of(ids[0], ids[1]) : Set.of();
+    }
+}
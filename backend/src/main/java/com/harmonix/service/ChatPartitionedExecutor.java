@@ -0,0 +1,148 @@
+package com.harmonix.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Runs chat work on a fixed set of single-threaded lanes chosen by hashing
+ * the chat id. Everything for one chat runs on one lane in submission order,
+ * while different chats spread across all lanes. A full lane blocks the
+ * submitter rather than reordering or dropping work.
+ *
+ * Lanes are never interrupted: a task that is running when shutdown starts
+ * (typically a Mongo write) always completes.
+ */
+@Component
+@Slf4j
+public class ChatPartitionedExecutor {
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final Lane[] lanes;
+    // Held shared while queueing, so no task can land on a lane after shutdown lets it exit
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    public ChatPartitionedExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.chat.lanes.count:0}") int laneCount,
+            @Value("${app.chat.lanes.queue-capacity:1000}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i, queueCapacity, meterRegistry, virtualThreads);
+        }
+        log.info("Chat executor started with {} {} lanes", count, virtualThreads ? "virtual" : "platform");
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    public int laneOf(String chatId) {
+        int hash = Objects.hashCode(chatId);
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    /**
+     * Queues the task on the chat's lane, waiting for space if the lane is full.
+     */
+    public void execute(String chatId, Runnable task) {
+        submitLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Chat executor is shut down");
+            }
+            lanes[laneOf(chatId)].queue.put(new Task(task, System.nanoTime()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing chat task", e);
+        } finally {
+            submitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops accepting work and lets each lane finish what is already queued.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Waits for submitters already queueing; lanes keep draining meanwhile, so a full lane frees up
+        submitLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<Task> queue;
+        private final Timer latency;
+        private final Thread thread;
+
+        private Lane(int index, int capacity, MeterRegistry meterRegistry, boolean virtual) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            String tag = Integer.toString(index);
+            Gauge.builder("chat.lanes.queue.size", queue, BlockingQueue::size)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            // Time from submission to completion, so queueing delay is included
+            this.latency = Timer.builder("chat.lanes.latency")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            // Virtual lanes make a high lane count cheap, since lanes mostly block on Mongo
+            Thread.Builder builder = virtual ? Thread.ofVirtual() : Thread.ofPlatform();
+            this.thread = builder.name("chat-lane-" + index).start(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Task task;
+                try {
+                    task = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("{} interrupted with {} tasks queued", thread.getName(), queue.size());
+                    return;
+                }
+                if (task == null) {
+                    // Nothing can be queued once running is false, so an empty lane is then done
+                    if (!running && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    task.runnable().run();
+                } catch (RuntimeException e) {
+                    log.error("Chat task failed on {}: {}", thread.getName(), e.getMessage(), e);
+                } finally {
+                    latency.record(System.nanoTime() - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    private record Task(Runnable runnable, long enqueuedAt) {
+    }
+}
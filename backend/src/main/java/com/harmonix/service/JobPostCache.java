@@ -0,0 +1,110 @@
+package com.harmonix.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harmonix.dto.response.ApiResponse;
+import com.harmonix.entity.JobPost;
+import com.harmonix.exception.ResourceNotFoundException;
+import com.harmonix.mapper.JobPostMapper;
+import com.harmonix.repository.JobPostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of job post responses, held as the serialized
+ * {@code ApiResponse} JSON so a hit skips both Mongo and Jackson. Bounded
+ * by total bytes; Caffeine's W-TinyLFU keeps the frequently read posts.
+ *
+ * {@link JobPostService} invalidates a post and its owner's list on every
+ * create, update and delete. The TTL only bounds the damage of a write that
+ * bypasses the service. With {@code app.cache.job-posts.enabled=false}
+ * every call reads and serializes afresh.
+ */
+@Service
+public class JobPostCache {
+
+    private static final String CACHE_NAME = "jobPosts";
+    private static final String POST_KEY = "post:";
+    private static final String USER_KEY = "user:";
+
+    private final JobPostRepository jobPostRepository;
+    private final JobPostMapper jobPostMapper;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<String, byte[]> responses;
+
+    public JobPostCache(
+            JobPostRepository jobPostRepository,
+            JobPostMapper jobPostMapper,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.job-posts.enabled:true}") boolean enabled,
+            @Value("${app.cache.job-posts.max-bytes:67108864}") long maxBytes,
+            @Value("${app.cache.job-posts.ttl:10m}") Duration ttl) {
+        this.jobPostRepository = jobPostRepository;
+        this.jobPostMapper = jobPostMapper;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] json) -> json.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+    }
+
+    /**
+     * {@code ApiResponse<JobPostResponse>} JSON of one post.
+     */
+    public byte[] getJobPost(String id) {
+        return get(POST_KEY + id, () -> {
+            JobPost jobPost = jobPostRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("JobPost", "id", id));
+            return jobPostMapper.toResponse(jobPost);
+        });
+    }
+
+    /**
+     * {@code ApiResponse<List<JobPostResponse>>} JSON of one user's posts.
+     */
+    public byte[] getJobPostsByUserId(String userId) {
+        return get(USER_KEY + userId, () -> jobPostRepository.findByUserId(userId).stream()
+                .map(jobPostMapper::toResponse)
+                .toList());
+    }
+
+    public void invalidate(String postId, String userId) {
+        responses.invalidate(POST_KEY + postId);
+        if (userId != null) {
+            responses.invalidate(USER_KEY + userId);
+        }
+    }
+
+    public void invalidateUser(String userId) {
+        responses.invalidate(USER_KEY + userId);
+    }
+
+    // A load racing an invalidation of the same key finishes first and is then discarded
+    private byte[] get(String key, Supplier<Object> loader) {
+        if (!enabled) {
+            return serialize(loader.get());
+        }
+        return responses.get(key, k -> serialize(loader.get()));
+    }
+
+    private byte[] serialize(Object data) {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponse.success(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize job post response", e);
+        }
+    }
+}
@@ -2,15 +2,27 @@ package com.harmonix.service;
 
 import com.harmonix.dto.request.JobPostCreateRequest;
 import com.harmonix.dto.request.JobPostUpdateRequest;
+import com.harmonix.dto.response.CursorPageResponse;
 import com.harmonix.dto.response.JobPostResponse;
+import com.harmonix.dto.response.JobPostSummaryResponse;
 import com.harmonix.entity.JobPost;
+import com.harmonix.exception.BadRequestException;
 import com.harmonix.exception.ResourceNotFoundException;
 import com.harmonix.mapper.JobPostMapper;
 import com.harmonix.repository.JobPostRepository;
+import com.harmonix.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,32 +33,109 @@ public class JobPostService {
 
     private final JobPostRepository jobPostRepository;
     private final JobPostMapper jobPostMapper;
+    private final MongoTemplate mongoTemplate;
+    private final SkillMatchingService skillMatchingService;
+    private final ResourceVersions resourceVersions;
+    private final JobPostCache jobPostCache;
+
+    @Value("${app.job-posts.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.job-posts.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.job-posts.legacy-max-results:200}")
+    private int legacyMaxResults;
 
     public JobPostResponse createJobPost(String userId, JobPostCreateRequest request) {
         JobPost jobPost = jobPostMapper.toEntity(request, userId);
         JobPost savedJobPost = jobPostRepository.save(jobPost);
+        skillMatchingService.indexPost(savedJobPost);
+        jobPostCache.invalidateUser(userId);
+        resourceVersions.bump(ResourceVersions.JOB_POSTS);
         return jobPostMapper.toResponse(savedJobPost);
     }
 
+    /**
+     * Compatibility path for the old unbounded listing: the newest posts only,
+     * capped at {@code app.job-posts.legacy-max-results}. New clients use the feed.
+     */
     @Transactional(readOnly = true)
     public List<JobPostResponse> getAllJobPosts() {
-        return jobPostRepository.findAll().stream()
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.DESC, "postedAt", "id"))
+                .limit(legacyMaxResults);
+        return mongoTemplate.find(query, JobPost.class).stream()
                 .map(jobPostMapper::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset page of post summaries, newest first, optionally filtered.
+     * Each filter is backed by a {field, postedAt, _id} index; pass the
+     * returned {@code nextCursor} back as {@code cursor} for the next page.
+     */
     @Transactional(readOnly = true)
-    public JobPostResponse getJobPostById(String id) {
-        JobPost jobPost = jobPostRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("JobPost", "id", id));
-        return jobPostMapper.toResponse(jobPost);
+    public CursorPageResponse<JobPostSummaryResponse> getJobPostFeed(
+            String cursor, Integer limit, String collaborationType, String availability, String userId) {
+        int size = resolvePageSize(limit);
+
+        Criteria criteria = new Criteria();
+        if (collaborationType != null && !collaborationType.isBlank()) {
+            criteria = criteria.and("collaborationType").is(collaborationType);
+        }
+        if (availability != null && !availability.isBlank()) {
+            criteria = criteria.and("availability").is(availability);
+        }
+        if (userId != null && !userId.isBlank()) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (cursor != null) {
+            String[] position = CursorUtil.decode(cursor);
+            LocalDateTime postedAt = parsePostedAt(position[0]);
+            Object id = ObjectId.isValid(position[1]) ? new ObjectId(position[1]) : position[1];
+            criteria = criteria.and("postedAt").lte(postedAt).orOperator(
+                    Criteria.where("postedAt").lt(postedAt),
+                    Criteria.where("id").lt(id)
+            );
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "postedAt", "id"))
+                .limit(size + 1);
+        query.fields().include("userId", "title", "skillsNeeded", "collaborationType",
+                "availability", "imageUrl", "postedAt");
+
+        List<JobPost> posts = mongoTemplate.find(query, JobPost.class);
+        boolean hasMore = posts.size() > size;
+        List<JobPost> page = posts.subList(0, Math.min(size, posts.size()));
+
+        String nextCursor = null;
+        if (hasMore) {
+            JobPost last = page.get(page.size() - 1);
+            nextCursor = CursorUtil.encode(last.getPostedAt().toString(), last.getId());
+        }
+        return CursorPageResponse.<JobPostSummaryResponse>builder()
+                .items(page.stream().map(jobPostMapper::toSummary).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
+    /**
+     * Serialized {@code ApiResponse<JobPostResponse>}, from {@link JobPostCache}.
+     */
     @Transactional(readOnly = true)
-    public List<JobPostResponse> getJobPostsByUserId(String userId) {
-        return jobPostRepository.findByUserId(userId).stream()
-                .map(jobPostMapper::toResponse)
-                .collect(Collectors.toList());
+    public byte[] getJobPostByIdJson(String id) {
+        return jobPostCache.getJobPost(id);
+    }
+
+    /**
+     * Serialized {@code ApiResponse<List<JobPostResponse>>}, from {@link JobPostCache}.
+     */
+    @Transactional(readOnly = true)
+    public byte[] getJobPostsByUserIdJson(String userId) {
+        return jobPostCache.getJobPostsByUserId(userId);
     }
 
     public JobPostResponse updateJobPost(String id, JobPostUpdateRequest request) {
@@ -55,13 +144,36 @@ public class JobPostService {
 
         jobPostMapper.updateEntity(jobPost, request);
         JobPost updatedJobPost = jobPostRepository.save(jobPost);
+        skillMatchingService.indexPost(updatedJobPost);
+        jobPostCache.invalidate(id, updatedJobPost.getUserId());
+        resourceVersions.bump(ResourceVersions.JOB_POSTS);
         return jobPostMapper.toResponse(updatedJobPost);
     }
 
     public void deleteJobPost(String id) {
-        if (!jobPostRepository.existsById(id)) {
-            throw new ResourceNotFoundException("JobPost", "id", id);
-        }
+        JobPost jobPost = jobPostRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("JobPost", "id", id));
         jobPostRepository.deleteById(id);
+        skillMatchingService.removePost(id);
+        jobPostCache.invalidate(id, jobPost.getUserId());
+        resourceVersions.bump(ResourceVersions.JOB_POSTS);
+    }
+
+    private LocalDateTime parsePostedAt(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Malformed cursor");
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
     }
 }
@@ -0,0 +1,280 @@
+package com.harmonix.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.harmonix.constant.AppConstants;
+import com.harmonix.entity.Message;
+import com.harmonix.entity.MessageArchive;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for old messages, and the retention rules that apply to them.
+ *
+ * The compactor moves runs of messages older than {@code app.archive.after}
+ * into {@link MessageArchive} documents holding the run as gzip'd JSON. The
+ * read methods here mirror the keyset queries on the hot collection so
+ * history can continue into the archive where the hot collection ends.
+ *
+ * Retention is per message type ({@code app.retention.*}, zero meaning keep
+ * forever); types without their own setting follow the text retention.
+ * Expired messages are dropped from the hot collection by the compactor and
+ * filtered out of archive reads; whole archives are removed once they are
+ * past the longest retention.
+ */
+@Service
+public class MessageArchiveService {
+
+    private static final TypeReference<List<Message>> MESSAGE_LIST = new TypeReference<>() {
+    };
+    private static final int STREAM_BATCH_SIZE = 8;
+    // Message ids are set when the message is accepted, within moments of its timestamp
+    private static final Duration ID_TIME_SLACK = Duration.ofMinutes(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration archiveAfter;
+    private final Duration textRetention;
+    private final Map<String, Duration> retentionByType;
+
+    public MessageArchiveService(
+            MongoTemplate mongoTemplate,
+            ObjectMapper objectMapper,
+            @Value("${app.archive.after:90d}") Duration archiveAfter,
+            @Value("${app.retention.text:0d}") Duration textRetention,
+            @Value("${app.retention.image:0d}") Duration imageRetention,
+            @Value("${app.retention.file:0d}") Duration fileRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.archiveAfter = archiveAfter;
+        this.textRetention = textRetention;
+        this.retentionByType = Map.of(
+                AppConstants.MESSAGE_TYPE_TEXT, textRetention,
+                AppConstants.MESSAGE_TYPE_IMAGE, imageRetention,
+                AppConstants.MESSAGE_TYPE_FILE, fileRetention);
+    }
+
+    public Duration getArchiveAfter() {
+        return archiveAfter;
+    }
+
+    /**
+     * Whether a message at this instant may already have been archived;
+     * newer positions never need the archive.
+     */
+    public boolean mayBeArchived(Instant timestamp) {
+        return timestamp.isBefore(Instant.now().minus(archiveAfter));
+    }
+
+    public boolean isExpired(Message message, Instant now) {
+        Duration retention = message.getType() != null
+                ? retentionByType.getOrDefault(message.getType(), textRetention)
+                : textRetention;
+        return !retention.isZero() && message.getTimestamp().isBefore(now.minus(retention));
+    }
+
+    /**
+     * Matches messages past the retention of their own type, or empty when
+     * every type is kept forever. Types without their own setting follow the
+     * text retention.
+     */
+    public Optional<Criteria> expiredCriteria(Instant now) {
+        List<Criteria> expired = new ArrayList<>();
+        retentionByType.forEach((type, retention) -> {
+            if (retention.isZero()) {
+                return;
+            }
+            Criteria ofType = AppConstants.MESSAGE_TYPE_TEXT.equals(type)
+                    ? Criteria.where("type").nin(otherTypes())
+                    : Criteria.where("type").is(type);
+            expired.add(ofType.and("timestamp").lt(now.minus(retention)));
+        });
+        return expired.isEmpty()
+                ? Optional.empty()
+                : Optional.of(new Criteria().orOperator(expired.toArray(Criteria[]::new)));
+    }
+
+    private List<String> otherTypes() {
+        return retentionByType.keySet().stream()
+                .filter(type -> !AppConstants.MESSAGE_TYPE_TEXT.equals(type))
+                .toList();
+    }
+
+    /**
+     * The longest retention of any type, or empty when some type is kept forever.
+     */
+    public Optional<Duration> getMaxRetention() {
+        if (retentionByType.values().stream().anyMatch(Duration::isZero)) {
+            return Optional.empty();
+        }
+        return retentionByType.values().stream().max(Duration::compareTo);
+    }
+
+    /**
+     * Stores a run of consecutive messages of one chat, oldest first. The id
+     * is derived from the first message, so a run archived again after an
+     * interrupted compaction replaces the earlier copy.
+     */
+    public void archive(String chatId, List<Message> run) {
+        Message first = run.get(0);
+        Message last = run.get(run.size() - 1);
+        mongoTemplate.save(MessageArchive.builder()
+                .id(chatId + ":" + first.getId())
+                .chatId(chatId)
+                .fromTimestamp(first.getTimestamp())
+                .toTimestamp(last.getTimestamp())
+                .messageCount(run.size())
+                .payload(compress(run))
+                .archivedAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Archived messages strictly older than (timestamp, id), newest first;
+     * with no position, the newest archived messages.
+     */
+    public List<Message> findOlder(String chatId, Instant deletedAt, Instant timestamp, String id, int limit) {
+        Criteria criteria = Criteria.where("chatId").is(chatId);
+        if (timestamp != null) {
+            criteria.and("fromTimestamp").lte(timestamp);
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "fromTimestamp"));
+        List<Message> result = new ArrayList<>();
+        // An interrupted compaction can leave a message in two archives
+        Set<String> seen = new HashSet<>();
+        Instant now = Instant.now();
+        try (Stream<MessageArchive> archives = mongoTemplate.stream(query, MessageArchive.class)) {
+            Iterator<MessageArchive> iterator = archives.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                List<Message> run = decompress(iterator.next());
+                for (int i = run.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    Message message = run.get(i);
+                    if ((timestamp == null || compare(message, timestamp, id) < 0)
+                            && isVisible(message, deletedAt, now) && seen.add(message.getId())) {
+                        result.add(message);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Archived messages strictly newer than (timestamp, id), oldest first.
+     */
+    public List<Message> findNewer(String chatId, Instant deletedAt, Instant timestamp, String id, int limit) {
+        if (limit <= 0 || !mayBeArchived(timestamp)) {
+            return List.of();
+        }
+        Query query = Query.query(Criteria.where("chatId").is(chatId).and("toTimestamp").gte(timestamp))
+                .with(Sort.by(Sort.Direction.ASC, "fromTimestamp"));
+        List<Message> result = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Instant now = Instant.now();
+        try (Stream<MessageArchive> archives = mongoTemplate.stream(query, MessageArchive.class)) {
+            Iterator<MessageArchive> iterator = archives.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                for (Message message : decompress(iterator.next())) {
+                    if (result.size() == limit) {
+                        break;
+                    }
+                    if (compare(message, timestamp, id) > 0
+                            && isVisible(message, deletedAt, now) && seen.add(message.getId())) {
+                        result.add(message);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Looks an archived message up by id. The id's embedded creation time
+     * narrows the search to the archives around it.
+     */
+    public Optional<Message> findById(String chatId, Instant deletedAt, String messageId) {
+        if (!ObjectId.isValid(messageId)) {
+            return Optional.empty();
+        }
+        Instant created = new ObjectId(messageId).getDate().toInstant();
+        if (!mayBeArchived(created.minus(ID_TIME_SLACK))) {
+            return Optional.empty();
+        }
+        Query query = Query.query(Criteria.where("chatId").is(chatId)
+                .and("fromTimestamp").lte(created.plus(ID_TIME_SLACK))
+                .and("toTimestamp").gte(created.minus(ID_TIME_SLACK)));
+        Instant now = Instant.now();
+        try (Stream<MessageArchive> archives = mongoTemplate.stream(query, MessageArchive.class)) {
+            return archives.flatMap(archive -> decompress(archive).stream())
+                    .filter(message -> messageId.equals(message.getId()))
+                    .filter(message -> isVisible(message, deletedAt, now))
+                    .findFirst();
+        }
+    }
+
+    /**
+     * Every archived message of the chat, oldest first, one archive in memory
+     * at a time. The caller must close the stream.
+     */
+    public Stream<Message> streamAll(String chatId, Instant deletedAt) {
+        Query query = Query.query(Criteria.where("chatId").is(chatId))
+                .with(Sort.by(Sort.Direction.ASC, "fromTimestamp"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        Instant now = Instant.now();
+        return mongoTemplate.stream(query, MessageArchive.class)
+                .flatMap(archive -> decompress(archive).stream())
+                .filter(message -> isVisible(message, deletedAt, now));
+    }
+
+    /**
+     * Orders a message against a (timestamp, id) keyset position.
+     */
+    public static int compare(Message message, Instant timestamp, String id) {
+        int byTime = message.getTimestamp().compareTo(timestamp);
+        return byTime != 0 ? byTime : message.getId().compareTo(id);
+    }
+
+    private boolean isVisible(Message message, Instant deletedAt, Instant now) {
+        return (deletedAt == null || message.getTimestamp().isAfter(deletedAt)) && !isExpired(message, now);
+    }
+
+    private byte[] compress(List<Message> run) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, run);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress message archive", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Message> decompress(MessageArchive archive) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archive.getPayload()))) {
+            return objectMapper.readValue(gzip, MESSAGE_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read message archive " + archive.getId(), e);
+        }
+    }
+}
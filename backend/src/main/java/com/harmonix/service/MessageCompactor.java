@@ -0,0 +1,133 @@
+package com.harmonix.service;
+
+import com.harmonix.entity.ChatHead;
+import com.harmonix.entity.Message;
+import com.harmonix.entity.MessageArchive;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Scheduled compaction of the hot {@code messages} collection. For every
+ * chat, hot messages past the retention of their own type are deleted first,
+ * whatever {@code app.archive.after} is. Messages older than
+ * {@code app.archive.after} are then read in runs of
+ * {@code app.archive.run-size}, expired ones are dropped, the rest are
+ * written to one {@link MessageArchive} and then removed from the hot
+ * collection. Archives past the longest retention are removed as a whole.
+ *
+ * A run is archived before it is removed, so an interrupted pass loses
+ * nothing; the next pass rewrites the same archive. Deleted chats are left
+ * to {@link ChatDeletionJob}.
+ */
+@Component
+@Slf4j
+public class MessageCompactor {
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageArchiveService archiveService;
+    private final boolean enabled;
+    private final int runSize;
+    private final Counter archivedMessages;
+    private final Counter expiredMessages;
+    private final Counter expiredArchives;
+    private final Timer passTimer;
+
+    public MessageCompactor(
+            MongoTemplate mongoTemplate,
+            MessageArchiveService archiveService,
+            MeterRegistry meterRegistry,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.run-size:500}") int runSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveService = archiveService;
+        this.enabled = enabled;
+        this.runSize = runSize;
+        this.archivedMessages = meterRegistry.counter("messages.archive.archived");
+        this.expiredMessages = meterRegistry.counter("messages.archive.expired");
+        this.expiredArchives = meterRegistry.counter("messages.archive.expired_archives");
+        this.passTimer = meterRegistry.timer("messages.archive.pass");
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        passTimer.record(this::runPass);
+    }
+
+    private void runPass() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(archiveService.getArchiveAfter());
+
+        Query live = Query.query(Criteria.where("deletedAt").exists(false));
+        live.fields().include("id");
+        List<String> chatIds = mongoTemplate.find(live, ChatHead.class).stream()
+                .map(ChatHead::getId)
+                .toList();
+
+        long archived = 0;
+        for (String chatId : chatIds) {
+            try {
+                archived += compactChat(chatId, cutoff, now);
+            } catch (RuntimeException e) {
+                log.error("Failed to compact chat {}: {}", chatId, e.getMessage(), e);
+            }
+        }
+
+        long droppedArchives = archiveService.getMaxRetention()
+                .map(retention -> mongoTemplate.remove(
+                        Query.query(Criteria.where("toTimestamp").lt(now.minus(retention))),
+                        MessageArchive.class).getDeletedCount())
+                .orElse(0L);
+        expiredArchives.increment(droppedArchives);
+        log.info("Message compaction archived {} messages from {} chats, dropped {} expired archives",
+                archived, chatIds.size(), droppedArchives);
+    }
+
+    private long compactChat(String chatId, Instant cutoff, Instant now) {
+        archiveService.expiredCriteria(now).ifPresent(expired -> expiredMessages.increment(
+                mongoTemplate.remove(Query.query(Criteria.where("chatId").is(chatId).andOperator(expired)),
+                        Message.class).getDeletedCount()));
+
+        Query query = Query.query(Criteria.where("chatId").is(chatId).and("timestamp").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .limit(runSize);
+        long archived = 0;
+        while (true) {
+            List<Message> run = mongoTemplate.find(query, Message.class);
+            if (run.isEmpty()) {
+                return archived;
+            }
+            List<Message> kept = run.stream()
+                    .filter(message -> !archiveService.isExpired(message, now))
+                    .toList();
+            if (!kept.isEmpty()) {
+                // Status is derived from chat head watermarks on read
+                kept.forEach(message -> message.setStatus(null));
+                archiveService.archive(chatId, kept);
+            }
+            List<String> ids = run.stream().map(Message::getId).toList();
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Message.class);
+
+            archived += kept.size();
+            archivedMessages.increment(kept.size());
+            expiredMessages.increment(run.size() - kept.size());
+            if (run.size() < runSize) {
+                return archived;
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.harmonix.service;
+
+import com.harmonix.dto.response.CursorPageResponse;
+import com.harmonix.entity.DeliveryCursor;
+import com.harmonix.entity.Message;
+import com.harmonix.exception.BadRequestException;
+import com.harmonix.exception.ResourceNotFoundException;
+import com.harmonix.util.CursorUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * At-least-once delivery of direct messages across reconnects.
+ *
+ * Each user has a delivery cursor: the newest message they acknowledged,
+ * across all chats. When a client subscribes to its
+ * {@code /queue/messages/{userId}} queue, everything received after the
+ * cursor is read from the (receiverId, timestamp, _id) index in pages and
+ * sent straight to that subscription. The cursor only moves on an explicit
+ * acknowledgement, so a client that drops mid-replay gets the rest next time.
+ * Messages of a deleted chat that are not purged yet are skipped.
+ */
+@Service
+@Slf4j
+public class MessageDeliveryService {
+
+    private static final String USER_QUEUE_PREFIX = "/queue/messages/";
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatHeadService chatHeadService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MessageChannel clientOutboundChannel;
+    private final AsyncTaskExecutor replayExecutor;
+
+    @Value("${app.delivery.replay.page-size:100}")
+    private int pageSize;
+
+    @Value("${app.delivery.replay.max-messages:1000}")
+    private int maxReplayMessages;
+
+    public MessageDeliveryService(
+            MongoTemplate mongoTemplate,
+            ChatHeadService chatHeadService,
+            SimpMessagingTemplate messagingTemplate,
+            @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+            @Qualifier("deliveryReplayExecutor") AsyncTaskExecutor replayExecutor) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatHeadService = chatHeadService;
+        this.messagingTemplate = messagingTemplate;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.replayExecutor = replayExecutor;
+    }
+
+    /**
+     * Messages received after the user's cursor, oldest first. A user with no
+     * cursor yet starts from now rather than from their whole history.
+     */
+    public CursorPageResponse<Message> getPending(String userId, String after, Integer limit) {
+        int size = limit == null ? pageSize : Math.min(Math.max(limit, 1), pageSize);
+        Instant timestamp;
+        String messageId;
+        if (after != null) {
+            String[] position = CursorUtil.decode(after);
+            timestamp = Instant.ofEpochMilli(CursorUtil.decodeLongKey(position));
+            messageId = position[1];
+        } else {
+            DeliveryCursor cursor = getOrCreateCursor(userId);
+            timestamp = cursor.getTimestamp();
+            messageId = cursor.getMessageId();
+        }
+
+        List<Message> found = findPending(userId, timestamp, messageId, size + 1);
+        boolean hasMore = found.size() > size;
+        List<Message> scanned = found.subList(0, Math.min(size, found.size()));
+        List<Message> items = visible(scanned);
+        String nextCursor = null;
+        if (hasMore) {
+            // From the last message scanned, so a page of hidden messages still moves on
+            Message last = scanned.get(scanned.size() - 1);
+            nextCursor = CursorUtil.encode(last.getTimestamp().toEpochMilli(), last.getId());
+        }
+        return CursorPageResponse.<Message>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Moves the user's cursor up to the given message. Acknowledging an older
+     * message than the current cursor is a no-op.
+     */
+    public void acknowledge(String userId, String messageId) {
+        Message message = mongoTemplate.findById(messageId, Message.class);
+        if (message == null) {
+            throw new ResourceNotFoundException("Message", "id", messageId);
+        }
+        if (!userId.equals(message.getReceiverId())) {
+            throw new BadRequestException("Only the receiver can acknowledge a message");
+        }
+        Instant timestamp = message.getTimestamp();
+
+        Query behind = Query.query(Criteria.where("userId").is(userId).orOperator(
+                Criteria.where("timestamp").lt(timestamp),
+                Criteria.where("timestamp").is(timestamp).and("messageId").lt(messageId),
+                Criteria.where("timestamp").exists(false)
+        ));
+        Update update = new Update()
+                .set("timestamp", timestamp)
+                .set("messageId", messageId)
+                .set("updatedAt", Instant.now());
+        try {
+            mongoTemplate.upsert(behind, update, DeliveryCursor.class);
+        } catch (DuplicateKeyException e) {
+            // The cursor is already at or past this message
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Principal user = event.getUser();
+        if (user == null || !(USER_QUEUE_PREFIX + user.getName()).equals(headers.getDestination())) {
+            return;
+        }
+        String sessionId = headers.getSessionId();
+        String subscriptionId = headers.getSubscriptionId();
+        replayExecutor.execute(() -> replay(user.getName(), sessionId, subscriptionId, headers.getDestination()));
+    }
+
+    /**
+     * Sends pending messages to one subscription directly on the outbound
+     * channel, the same way the broker delivers, without waiting for the
+     * subscription to be registered with the broker and without reaching the
+     * user's other sessions.
+     */
+    private void replay(String userId, String sessionId, String subscriptionId, String destination) {
+        try {
+            DeliveryCursor cursor = getOrCreateCursor(userId);
+            Instant timestamp = cursor.getTimestamp();
+            String messageId = cursor.getMessageId();
+            int scanned = 0;
+            int sent = 0;
+            while (scanned < maxReplayMessages) {
+                List<Message> page = findPending(userId, timestamp, messageId, Math.min(pageSize, maxReplayMessages - scanned));
+                for (Message message : visible(page)) {
+                    send(sessionId, subscriptionId, destination, message);
+                    sent++;
+                }
+                scanned += page.size();
+                if (page.size() < pageSize) {
+                    break;
+                }
+                Message last = page.get(page.size() - 1);
+                timestamp = last.getTimestamp();
+                messageId = last.getId();
+            }
+            if (sent > 0) {
+                log.debug("Replayed {} messages to user {} on session {}", sent, userId, sessionId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Replay to user {} failed: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    private void send(String sessionId, String subscriptionId, String destination, Message message) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setLeaveMutable(true);
+        org.springframework.messaging.Message<?> frame =
+                messagingTemplate.getMessageConverter().toMessage(message, accessor.getMessageHeaders());
+        if (frame != null) {
+            clientOutboundChannel.send(frame);
+        }
+    }
+
+    private List<Message> findPending(String userId, Instant timestamp, String messageId, int limit) {
+        Query query = Query.query(Criteria.where("receiverId").is(userId)
+                        .and("timestamp").gte(timestamp)
+                        .orOperator(
+                                Criteria.where("timestamp").gt(timestamp),
+                                Criteria.where("id").gt(ObjectId.isValid(messageId) ? new ObjectId(messageId) : messageId)
+                        ))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Message.class);
+    }
+
+    /**
+     * Drops messages hidden by their chat's tombstone, as history reads do.
+     */
+    private List<Message> visible(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        Map<String, Instant> tombstones = chatHeadService.getDeletedAt(
+                messages.stream().map(Message::getChatId).collect(Collectors.toSet()));
+        if (tombstones.isEmpty()) {
+            return messages;
+        }
+        return messages.stream()
+                .filter(message -> {
+                    Instant deletedAt = tombstones.get(message.getChatId());
+                    return deletedAt == null || message.getTimestamp().isAfter(deletedAt);
+                })
+                .toList();
+    }
+
+    private DeliveryCursor getOrCreateCursor(String userId) {
+        DeliveryCursor cursor = mongoTemplate.findById(userId, DeliveryCursor.class);
+        if (cursor != null) {
+            return cursor;
+        }
+        Instant now = Instant.now();
+        Update update = new Update()
+                .setOnInsert("timestamp", now)
+                .setOnInsert("messageId", new ObjectId().toHexString())
+                .setOnInsert("updatedAt", now);
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("userId").is(userId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                DeliveryCursor.class);
+    }
+}
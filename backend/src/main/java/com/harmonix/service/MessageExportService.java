@@ -0,0 +1,122 @@
+package com.harmonix.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.harmonix.entity.Message;
+import com.harmonix.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a whole chat as newline-delimited JSON, oldest message first:
+ * archived messages, then the hot collection.
+ *
+ * Messages are read from a Mongo cursor in batches of
+ * {@code app.messages.export.batch-size} and written one at a time, so
+ * memory use does not grow with the chat. A failed write (the client went
+ * away) closes the stream, which kills the server-side cursor.
+ */
+@Service
+@Slf4j
+public class MessageExportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMembershipCache chatMembershipCache;
+    private final ChatHeadService chatHeadService;
+    private final MessageArchiveService messageArchiveService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public MessageExportService(
+            MongoTemplate mongoTemplate,
+            ChatMembershipCache chatMembershipCache,
+            ChatHeadService chatHeadService,
+            MessageArchiveService messageArchiveService,
+            ObjectMapper objectMapper,
+            @Value("${app.messages.export.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatMembershipCache = chatMembershipCache;
+        this.chatHeadService = chatHeadService;
+        this.messageArchiveService = messageArchiveService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Fails fast, before any bytes are written, when the user is not in the chat.
+     */
+    public void checkAccess(String chatId, String userId) {
+        if (!chatMembershipCache.isMember(chatId, userId)) {
+            throw new ResourceNotFoundException("Chat", "id", chatId);
+        }
+    }
+
+    public long export(String chatId, OutputStream out, boolean gzip) throws IOException {
+        Criteria criteria = Criteria.where("chatId").is(chatId);
+        Instant deletedAt = chatHeadService.getDeletedAt(chatId);
+        if (deletedAt != null) {
+            criteria.and("timestamp").gt(deletedAt);
+        }
+        // Expired messages the compactor has not deleted yet
+        messageArchiveService.expiredCriteria(Instant.now()).ifPresent(criteria::norOperator);
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .cursorBatchSize(batchSize);
+        // The stored status is stale; delivery state lives in the chat head watermarks
+        query.fields().exclude("status");
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+        ExportProgress progress = new ExportProgress();
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(target)) {
+            // Archived messages are all older than the hot ones; the hot cursor is
+            // only opened afterwards so it cannot time out while the archive is written
+            try (Stream<Message> archived = messageArchiveService.streamAll(chatId, deletedAt)) {
+                write(archived, writer, progress);
+            }
+            try (Stream<Message> hot = mongoTemplate.stream(query, Message.class)) {
+                write(hot, writer, progress);
+            }
+            if (progress.count > 0) {
+                writer.flush();
+                target.write('\n');
+            }
+        }
+        long count = progress.count;
+        log.debug("Exported {} messages from chat {}", count, chatId);
+        return count;
+    }
+
+    private void write(Stream<Message> messages, SequenceWriter writer, ExportProgress progress) throws IOException {
+        for (Message message : (Iterable<Message>) messages::iterator) {
+            // Skips the overlap an interrupted compaction can leave between archive and hot collection
+            if (progress.last != null
+                    && MessageArchiveService.compare(message, progress.last.getTimestamp(), progress.last.getId()) <= 0) {
+                continue;
+            }
+            message.setStatus(null);
+            writer.write(message);
+            progress.last = message;
+            progress.count++;
+        }
+    }
+
+    private static final class ExportProgress {
+        private Message last;
+        private long count;
+    }
+}
@@ -1,34 +1,176 @@
 package com.harmonix.service;
 
+import com.harmonix.constant.AppConstants;
+import com.harmonix.dto.response.CursorPageResponse;
+import com.harmonix.entity.ChatHead;
 import com.harmonix.entity.Message;
+import com.harmonix.exception.BadRequestException;
+import com.harmonix.exception.ResourceNotFoundException;
 import com.harmonix.repository.MessageRepository;
+import com.harmonix.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class MessageService {
-    
+
     private final MessageRepository messageRepository;
     private final ChatHeadService chatHeadService;
+    private final MongoTemplate mongoTemplate;
+    private final MessageStatusBuffer messageStatusBuffer;
+    private final MessageWriteBehind messageWriteBehind;
+    private final MessageArchiveService messageArchiveService;
+
+    @Value("${app.messages.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.messages.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.messages.write-behind.ack-timeout-ms:5000}")
+    private long ackTimeoutMillis;
 
+    /**
+     * Stores the message according to {@code app.messages.write-mode}. In
+     * async-with-ack mode this waits for the batch holding the message to be
+     * written, so a successful return still means the message is stored.
+     */
     public Message sendMessage(Message message) {
+        CompletableFuture<Message> persisted = submitMessage(message);
+        if (messageWriteBehind.getMode() != MessageWriteBehind.Mode.ASYNC_WITH_ACK) {
+            return persisted.getNow(message);
+        }
+        try {
+            return persisted.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while storing message", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Message could not be stored", e);
+        }
+    }
+
+    /**
+     * Non-blocking send for the WebSocket path. The message gets its id and
+     * timestamp immediately so it can be broadcast; the future completes
+     * once it is stored (already complete in sync mode).
+     */
+    public CompletableFuture<Message> submitMessage(Message message) {
         message.setTimestamp(Instant.now());
-        Message saved = messageRepository.save(message);
-        chatHeadService.updateChatHeadFromMessage(saved);
-        return saved;
+        if (!messageWriteBehind.isEnabled()) {
+            Message saved = messageRepository.save(message);
+            chatHeadService.updateChatHeadFromMessage(saved);
+            return CompletableFuture.completedFuture(saved);
+        }
+        message.setId(new ObjectId().toHexString());
+        return messageWriteBehind.submit(message);
+    }
+
+    public MessageWriteBehind.Mode getWriteMode() {
+        return messageWriteBehind.getMode();
     }
 
     @Transactional(readOnly = true)
     public List<Message> getChatHistory(String chatId) {
-        return messageRepository.findTop50ByChatIdOrderByTimestampDesc(chatId);
+        return getChatHistoryPage(chatId, null, null, defaultPageSize).getItems();
     }
-    
+
+    /**
+     * Keyset page over (timestamp, id) within a chat, newest first.
+     * With {@code before} the page holds older messages, with {@code after}
+     * newer ones, and with neither the latest messages. The returned
+     * {@code nextCursor} is passed back as {@code before} to go further into
+     * history, {@code prevCursor} as {@code after} to catch up.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Message> getChatHistoryPage(String chatId, String before, String after, Integer limit) {
+        if (before != null && after != null) {
+            throw new BadRequestException("Only one of 'before' or 'after' may be given");
+        }
+        int size = resolvePageSize(limit);
+        Instant deletedAt = chatHeadService.getDeletedAt(chatId);
+
+        List<Message> items;
+        boolean hasMore;
+        if (after != null) {
+            String[] cursor = CursorUtil.decode(after);
+            List<Message> newer = findNewer(chatId, deletedAt, Instant.ofEpochMilli(CursorUtil.decodeLongKey(cursor)), cursor[1], size + 1);
+            hasMore = newer.size() > size;
+            items = new ArrayList<>(newer.subList(0, Math.min(size, newer.size())));
+            Collections.reverse(items);
+        } else {
+            Instant timestamp = null;
+            String id = null;
+            if (before != null) {
+                String[] cursor = CursorUtil.decode(before);
+                timestamp = Instant.ofEpochMilli(CursorUtil.decodeLongKey(cursor));
+                id = cursor[1];
+            }
+            List<Message> older = findOlder(chatId, deletedAt, timestamp, id, size + 1);
+            hasMore = older.size() > size;
+            items = older.subList(0, Math.min(size, older.size()));
+        }
+        return toPage(items, hasMore);
+    }
+
+    /**
+     * Page centred on one message: up to half the page of newer messages,
+     * the message itself, then older messages, newest first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Message> getMessagesAround(String chatId, String messageId, Integer limit) {
+        Instant deletedAt = chatHeadService.getDeletedAt(chatId);
+        Message anchor = findInChat(chatId, deletedAt, messageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Message", "id", messageId));
+        int size = resolvePageSize(limit);
+        int newerCount = (size - 1) / 2;
+        int olderCount = size - 1 - newerCount;
+
+        List<Message> newer = new ArrayList<>(findNewer(chatId, deletedAt, anchor.getTimestamp(), anchor.getId(), newerCount));
+        Collections.reverse(newer);
+        List<Message> older = findOlder(chatId, deletedAt, anchor.getTimestamp(), anchor.getId(), olderCount + 1);
+        boolean hasMore = older.size() > olderCount;
+
+        List<Message> items = new ArrayList<>(newer);
+        items.add(anchor);
+        items.addAll(older.subList(0, Math.min(olderCount, older.size())));
+        return toPage(items, hasMore);
+    }
+
+    /**
+     * A visible message of the chat, from the hot collection or the archive.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Message> findInChat(String chatId, String messageId) {
+        return findInChat(chatId, chatHeadService.getDeletedAt(chatId), messageId);
+    }
+
+    private Optional<Message> findInChat(String chatId, Instant deletedAt, String messageId) {
+        return messageRepository.findById(messageId)
+                .filter(message -> chatId.equals(message.getChatId()))
+                .filter(message -> deletedAt == null || message.getTimestamp().isAfter(deletedAt))
+                .or(() -> messageArchiveService.findById(chatId, deletedAt, messageId));
+    }
+
     public void send(Message message) {
         if (message.getTimestamp() == null) {
             message.setTimestamp(Instant.now());
@@ -36,4 +178,164 @@ public class MessageService {
         messageRepository.save(message);
     }
 
+    /**
+     * Older messages from the hot collection, continued from the archive
+     * once the hot collection runs out.
+     */
+    private List<Message> findOlder(String chatId, Instant deletedAt, Instant timestamp, String id, int limit) {
+        List<Message> hot = findOlderHot(chatId, deletedAt, timestamp, id, limit);
+        if (hot.size() >= limit) {
+            return hot;
+        }
+        Message last = hot.isEmpty() ? null : hot.get(hot.size() - 1);
+        List<Message> archived = messageArchiveService.findOlder(chatId, deletedAt,
+                last != null ? last.getTimestamp() : timestamp, last != null ? last.getId() : id,
+                limit - hot.size());
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Message> merged = new ArrayList<>(hot);
+        merged.addAll(archived);
+        return merged;
+    }
+
+    /**
+     * Newer messages, oldest first. Only a position old enough to have been
+     * archived reads the archive before the hot collection.
+     */
+    private List<Message> findNewer(String chatId, Instant deletedAt, Instant timestamp, String id, int limit) {
+        List<Message> archived = messageArchiveService.findNewer(chatId, deletedAt, timestamp, id, limit);
+        if (archived.isEmpty()) {
+            return findNewerHot(chatId, deletedAt, timestamp, id, limit);
+        }
+        Message last = archived.get(archived.size() - 1);
+        List<Message> merged = new ArrayList<>(archived);
+        merged.addAll(findNewerHot(chatId, deletedAt, last.getTimestamp(), last.getId(), limit - archived.size()));
+        return merged;
+    }
+
+    private List<Message> findOlderHot(String chatId, Instant deletedAt, Instant timestamp, String id, int limit) {
+        Criteria criteria = Criteria.where("chatId").is(chatId);
+        if (timestamp != null || deletedAt != null) {
+            Criteria range = criteria.and("timestamp");
+            if (deletedAt != null) {
+                // Messages of a deleted chat stay hidden until they are purged
+                range.gt(deletedAt);
+            }
+            if (timestamp != null) {
+                // The $lte bound keeps the index scan tight; the $or breaks timestamp ties by id
+                range.lte(timestamp).orOperator(
+                        Criteria.where("timestamp").lt(timestamp),
+                        Criteria.where("id").lt(toObjectId(id))
+                );
+            }
+            criteria = range;
+        }
+        Query query = Query.query(withoutExpired(criteria))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Message.class);
+    }
+
+    private List<Message> findNewerHot(String chatId, Instant deletedAt, Instant timestamp, String id, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Criteria range = Criteria.where("chatId").is(chatId).and("timestamp").gte(timestamp);
+        if (deletedAt != null) {
+            range.gt(deletedAt);
+        }
+        Criteria criteria = range
+                .orOperator(
+                        Criteria.where("timestamp").gt(timestamp),
+                        Criteria.where("id").gt(toObjectId(id))
+                );
+        Query query = Query.query(withoutExpired(criteria))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Message.class);
+    }
+
+    /**
+     * Hides hot messages past their type's retention until compaction deletes them.
+     */
+    private Criteria withoutExpired(Criteria criteria) {
+        return messageArchiveService.expiredCriteria(Instant.now())
+                .map(criteria::norOperator)
+                .orElse(criteria);
+    }
+
+    private CursorPageResponse<Message> toPage(List<Message> items, boolean hasMore) {
+        applyStatuses(items);
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!items.isEmpty()) {
+            prevCursor = cursorOf(items.get(0));
+            nextCursor = cursorOf(items.get(items.size() - 1));
+        }
+        return CursorPageResponse.<Message>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .prevCursor(prevCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Derives each message's status from the receiver's watermarks on the chat
+     * head, including acknowledgements still waiting in the status buffer.
+     */
+    private void applyStatuses(List<Message> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        String chatId = items.get(0).getChatId();
+        Query query = Query.query(Criteria.where("id").is(chatId));
+        query.fields().include(MessageStatusBuffer.DELIVERED_UP_TO, MessageStatusBuffer.READ_UP_TO);
+        ChatHead head = mongoTemplate.findOne(query, ChatHead.class);
+
+        for (Message message : items) {
+            String receiverId = message.getReceiverId();
+            Instant read = later(head != null ? head.getReadUpTo().get(receiverId) : null,
+                    messageStatusBuffer.pendingRead(chatId, receiverId));
+            Instant delivered = later(head != null ? head.getDeliveredUpTo().get(receiverId) : null,
+                    messageStatusBuffer.pendingDelivered(chatId, receiverId));
+            Instant timestamp = message.getTimestamp();
+            if (timestamp == null) {
+                continue;
+            }
+            if (read != null && !timestamp.isAfter(read)) {
+                message.setStatus(AppConstants.STATUS_READ);
+            } else if (delivered != null && !timestamp.isAfter(delivered)) {
+                message.setStatus(AppConstants.STATUS_DELIVERED);
+            } else {
+                message.setStatus(AppConstants.STATUS_SENT);
+            }
+        }
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private String cursorOf(Message message) {
+        return CursorUtil.encode(message.getTimestamp().toEpochMilli(), message.getId());
+    }
+
+    private Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
 }
@@ -0,0 +1,124 @@
+package com.harmonix.service;
+
+import com.harmonix.constant.AppConstants;
+import com.harmonix.entity.ChatHead;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces delivered/read acknowledgements per (chatId, userId) and writes
+ * them as watermarks on the chat head. A reader acking fifty messages in a
+ * burst costs one update per flush instead of fifty; {@code $max} keeps a
+ * late or replayed frame from moving a watermark backwards.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MessageStatusBuffer {
+
+    public static final String READ_UP_TO = "readUpTo";
+    public static final String DELIVERED_UP_TO = "deliveredUpTo";
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMembershipCache chatMembershipCache;
+    private final ResourceVersions resourceVersions;
+    private final Map<Key, Watermarks> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Records that {@code userId} has received or read everything in the chat
+     * up to {@code upTo}. Read implies delivered.
+     */
+    public void record(String chatId, String userId, String status, Instant upTo) {
+        boolean read = AppConstants.STATUS_READ.equalsIgnoreCase(status);
+        if (!read && !AppConstants.STATUS_DELIVERED.equalsIgnoreCase(status)) {
+            return;
+        }
+        pending.merge(new Key(chatId, userId), new Watermarks(upTo, read ? upTo : null), Watermarks::max);
+    }
+
+    /**
+     * Watermarks recorded but not yet flushed, so reads can see them before
+     * they reach Mongo.
+     */
+    public Instant pendingDelivered(String chatId, String userId) {
+        Watermarks watermarks = pending.get(new Key(chatId, userId));
+        return watermarks != null ? watermarks.delivered() : null;
+    }
+
+    public Instant pendingRead(String chatId, String userId) {
+        Watermarks watermarks = pending.get(new Key(chatId, userId));
+        return watermarks != null ? watermarks.read() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.message-status.flush-interval-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatHead.class);
+        Map<Key, Watermarks> flushed = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            Watermarks watermarks = pending.remove(key);
+            if (watermarks == null) {
+                continue;
+            }
+            Update update = new Update().max(DELIVERED_UP_TO + "." + key.userId(), watermarks.delivered());
+            if (watermarks.read() != null) {
+                update.max(READ_UP_TO + "." + key.userId(), watermarks.read());
+            }
+            bulk.updateOne(Query.query(Criteria.where("id").is(key.chatId()).and("participants").is(key.userId())), update);
+            flushed.put(key, watermarks);
+        }
+        if (flushed.isEmpty()) {
+            return;
+        }
+        try {
+            bulk.execute();
+            flushed.keySet().stream()
+                    .map(Key::chatId)
+                    .distinct()
+                    .forEach(chatId -> resourceVersions.bumpUsers(chatMembershipCache.getParticipants(chatId)));
+            log.debug("Flushed {} message status watermarks", flushed.size());
+        } catch (RuntimeException e) {
+            // $max makes a retry safe even if part of the batch was applied
+            flushed.forEach((key, watermarks) -> pending.merge(key, watermarks, Watermarks::max));
+            log.error("Failed to flush {} message status watermarks, retrying next flush: {}",
+                    flushed.size(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record Key(String chatId, String userId) {
+    }
+
+    private record Watermarks(Instant delivered, Instant read) {
+
+        static Watermarks max(Watermarks a, Watermarks b) {
+            return new Watermarks(later(a.delivered, b.delivered), later(a.read, b.read));
+        }
+
+        private static Instant later(Instant a, Instant b) {
+            if (a == null) {
+                return b;
+            }
+            return b == null || a.isAfter(b) ? a : b;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.harmonix.service;
+
+import com.harmonix.entity.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for chat messages. Callers get the message back
+ * straight away; a single flusher thread drains the bounded queue and writes
+ * each batch with one unordered bulk insert, followed by one chat head upsert
+ * per chat in the batch. A batch is flushed when it reaches
+ * {@code batch-size} or when {@code flush-interval-ms} has passed since its
+ * first message.
+ *
+ * When the queue is full the caller waits up to {@code enqueue-timeout-ms}
+ * and then writes its own message inline, so a slow database pushes back on
+ * senders instead of growing memory without bound.
+ */
+@Component
+@Slf4j
+public class MessageWriteBehind {
+
+    public enum Mode {
+        /** Save inline on the calling thread (the original path). */
+        SYNC,
+        /** Queue, and complete the returned future once the batch is written. */
+        ASYNC_WITH_ACK,
+        /** Queue and forget; write failures are only logged. */
+        ASYNC;
+
+        static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatHeadService chatHeadService;
+    private final Mode mode;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutMillis;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Counter callerRuns;
+    private final Counter failedWrites;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public MessageWriteBehind(
+            MongoTemplate mongoTemplate,
+            ChatHeadService chatHeadService,
+            MeterRegistry meterRegistry,
+            @Value("${app.messages.write-mode:sync}") String mode,
+            @Value("${app.messages.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.messages.write-behind.batch-size:500}") int batchSize,
+            @Value("${app.messages.write-behind.flush-interval-ms:50}") long flushIntervalMillis,
+            @Value("${app.messages.write-behind.enqueue-timeout-ms:100}") long enqueueTimeoutMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatHeadService = chatHeadService;
+        this.mode = Mode.parse(mode);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("messages.write_behind.queue.size", queue, BlockingQueue::size);
+        this.callerRuns = meterRegistry.counter("messages.write_behind.caller_runs");
+        this.failedWrites = meterRegistry.counter("messages.write_behind.failed");
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isEnabled() {
+        return mode != Mode.SYNC;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "message-write-behind");
+        flusher.start();
+        log.info("Message write-behind started in {} mode (batch {}, queue {})",
+                mode, batchSize, queue.remainingCapacity());
+    }
+
+    /**
+     * Queues the message for the next batch. The message must already carry
+     * its id and timestamp. The future completes with the message once it is
+     * stored, or exceptionally if the write fails.
+     */
+    public CompletableFuture<Message> submit(Message message) {
+        PendingWrite write = new PendingWrite(message, new CompletableFuture<>());
+        boolean queued;
+        try {
+            queued = running && queue.offer(write, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            callerRuns.increment();
+            write(List.of(write));
+        }
+        return write.persisted();
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: keep draining until the queue is empty
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Message write-behind flush failed: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        List<Message> messages = batch.stream().map(PendingWrite::message).toList();
+        Set<Integer> failed = new HashSet<>();
+        RuntimeException failure = null;
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class)
+                    .insert(messages)
+                    .execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failed.add(error.getIndex()));
+            failure = e;
+        } catch (RuntimeException e) {
+            for (int i = 0; i < batch.size(); i++) {
+                failed.add(i);
+            }
+            failure = e;
+        }
+
+        List<PendingWrite> stored = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (failed.contains(i)) {
+                failedWrites.increment();
+                write.persisted().completeExceptionally(failure);
+            } else {
+                stored.add(write);
+            }
+        }
+        if (failure != null) {
+            log.error("Failed to store {} of {} queued messages: {}", failed.size(), batch.size(), failure.getMessage());
+        }
+        if (stored.isEmpty()) {
+            return;
+        }
+
+        try {
+            chatHeadService.updateChatHeadsFromMessages(stored.stream().map(PendingWrite::message).toList());
+        } catch (RuntimeException e) {
+            // The messages are stored; a stale chat head is corrected by the next message
+            log.error("Failed to update chat heads for {} messages: {}", stored.size(), e.getMessage(), e);
+        }
+        stored.forEach(write -> write.persisted().complete(write.message()));
+    }
+
+    /**
+     * Stops accepting new messages and writes everything still queued before
+     * the Mongo client is closed.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            List<PendingWrite> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            write(remaining);
+        }
+        log.info("Message write-behind stopped");
+    }
+
+    private record PendingWrite(Message message, CompletableFuture<Message> persisted) {
+    }
+}
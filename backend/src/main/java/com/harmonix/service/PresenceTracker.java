@@ -0,0 +1,164 @@
+package com.harmonix.service;
+
+import com.harmonix.config.WebSocketConfig;
+import com.harmonix.dto.response.PresenceResponse;
+import com.harmonix.entity.ChatHead;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which users have a live STOMP session on this node.
+ *
+ * Session counts per user live in a ConcurrentHashMap, whose per-bin locking
+ * keeps connects and disconnects of different users from contending. A
+ * user going online or offline is only marked as changed; the scheduled
+ * push then sends each chat partner one frame on
+ * {@code /queue/presence/{userId}} with every change relevant to them.
+ *
+ * Presence is node-local. With the simple broker that is the whole picture;
+ * with the broker relay a user may be connected to another node, so
+ * {@link #isKnownOffline(String)} never reports anyone offline there.
+ */
+@Component
+@Slf4j
+public class PresenceTracker {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final boolean authoritative;
+
+    private final Map<String, Integer> sessionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, String> userBySession = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastSeen = new ConcurrentHashMap<>();
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    public PresenceTracker(
+            SimpMessagingTemplate messagingTemplate,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+        this.messagingTemplate = messagingTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.authoritative = WebSocketConfig.BROKER_MODE_SIMPLE.equalsIgnoreCase(brokerMode);
+        Gauge.builder("websocket.presence.online", sessionsByUser, Map::size).register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (user == null || sessionId == null || userBySession.putIfAbsent(sessionId, user.getName()) != null) {
+            return;
+        }
+        if (sessionsByUser.merge(user.getName(), 1, Integer::sum) == 1) {
+            changed.add(user.getName());
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        // Disconnect can be published more than once per session
+        String userId = userBySession.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        if (sessionsByUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null) == null) {
+            lastSeen.put(userId, Instant.now());
+            changed.add(userId);
+        }
+    }
+
+    public boolean isOnline(String userId) {
+        return userId != null && sessionsByUser.containsKey(userId);
+    }
+
+    /**
+     * True only when the user is certainly not connected anywhere, so pushes
+     * to them can be skipped.
+     */
+    public boolean isKnownOffline(String userId) {
+        return authoritative && !isOnline(userId);
+    }
+
+    public List<PresenceResponse> getPresence(Collection<String> userIds) {
+        return userIds.stream()
+                .distinct()
+                .map(this::presenceOf)
+                .toList();
+    }
+
+    /**
+     * Sends the changes since the last run, one frame per online chat partner.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.push-interval-ms:1000}")
+    public void pushChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Set<String> users = new HashSet<>();
+        for (Iterator<String> iterator = changed.iterator(); iterator.hasNext(); ) {
+            users.add(iterator.next());
+            iterator.remove();
+        }
+
+        Query query = Query.query(Criteria.where("participants").in(users));
+        query.fields().include("participants");
+        Map<String, List<PresenceResponse>> byRecipient = new HashMap<>();
+        Map<String, PresenceResponse> presence = new HashMap<>();
+        for (ChatHead head : mongoTemplate.find(query, ChatHead.class)) {
+            List<String> participants = head.getParticipants();
+            if (participants == null) {
+                continue;
+            }
+            for (String subject : participants) {
+                if (!users.contains(subject)) {
+                    continue;
+                }
+                for (String recipient : participants) {
+                    if (!recipient.equals(subject) && isOnline(recipient)) {
+                        List<PresenceResponse> updates = byRecipient.computeIfAbsent(recipient, id -> new ArrayList<>());
+                        PresenceResponse update = presence.computeIfAbsent(subject, this::presenceOf);
+                        if (!updates.contains(update)) {
+                            updates.add(update);
+                        }
+                    }
+                }
+            }
+        }
+        byRecipient.forEach((recipient, updates) ->
+                messagingTemplate.convertAndSend("/queue/presence/" + recipient, updates));
+        log.debug("Pushed presence of {} users to {} partners", users.size(), byRecipient.size());
+    }
+
+    private PresenceResponse presenceOf(String userId) {
+        return PresenceResponse.builder()
+                .userId(userId)
+                .online(isOnline(userId))
+                .lastSeen(isOnline(userId) ? null : lastSeen.get(userId))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.harmonix.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counters behind the ETags of read-heavy endpoints, so a
+ * poll that has not changed is answered with 304 before any Mongo query.
+ *
+ * Collections (job posts, users) have one counter each; chat lists have one
+ * per user. Writes bump the counter after they are stored. Per-user versions
+ * are drawn from one global sequence and kept in a bounded map; a user
+ * evicted from it reports the highest version ever evicted, which can only
+ * cost a spurious 200, never a stale 304. The process epoch in every tag
+ * keeps versions from before a restart from matching.
+ *
+ * Counters are local to the node, so {@code app.etag.enabled} must be off
+ * when several nodes serve the same clients.
+ */
+@Service
+public class ResourceVersions {
+
+    public static final String JOB_POSTS = "job-posts";
+    public static final String USERS = "users";
+    public static final String CHAT_HEADS = "chat-heads";
+
+    private final boolean enabled;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, AtomicLong> collections = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong evictedFloor = new AtomicLong();
+    private final Cache<String, Long> userVersions;
+
+    public ResourceVersions(
+            @Value("${app.etag.enabled:true}") boolean enabled,
+            @Value("${app.etag.max-tracked-users:100000}") long maxTrackedUsers) {
+        this.enabled = enabled;
+        this.userVersions = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                // Runs during the eviction, so no reader sees the entry gone before the floor moves
+                .evictionListener((String key, Long version, RemovalCause cause) ->
+                        evictedFloor.accumulateAndGet(version, Math::max))
+                .build();
+    }
+
+    public void bump(String collection) {
+        collections.computeIfAbsent(collection, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void bumpUser(String userId) {
+        if (userId != null) {
+            userVersions.put(userId, sequence.incrementAndGet());
+        }
+    }
+
+    public void bumpUsers(Collection<String> userIds) {
+        userIds.forEach(this::bumpUser);
+    }
+
+    /**
+     * Weak ETag for a whole collection, or null when ETags are disabled.
+     */
+    public String etag(String collection) {
+        if (!enabled) {
+            return null;
+        }
+        AtomicLong version = collections.get(collection);
+        return tag(collection, version != null ? version.get() : 0);
+    }
+
+    /**
+     * Weak ETag for one user's view of a resource, or null when ETags are disabled.
+     */
+    public String etag(String resource, String userId) {
+        if (!enabled) {
+            return null;
+        }
+        Long version = userVersions.getIfPresent(userId);
+        return tag(resource + "-" + userId, version != null ? version : evictedFloor.get());
+    }
+
+    // Weak, so the container may still gzip the body; If-None-Match compares weakly anyway
+    private String tag(String scope, long version) {
+        return "W/\"" + scope + "-" + epoch + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,141 @@
+package com.harmonix.service;
+
+import com.harmonix.dto.response.SearchHitResponse;
+import com.harmonix.dto.response.SearchResultResponse;
+import com.harmonix.entity.CollaborationRequest;
+import com.harmonix.entity.JobPost;
+import com.harmonix.exception.BadRequestException;
+import com.harmonix.util.SearchHighlighter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Ranked full-text search over job posts and collaboration requests, backed by
+ * the Mongo text indexes declared on those entities. Mongo maintains the
+ * indexes on every write, so anything saved through JobPostService or
+ * CollaborationRequestService is searchable as soon as the write returns.
+ *
+ * Text scores from different indexes (and field weights) are not comparable,
+ * so each collection's scores are divided by its best score before the two
+ * are merged; a hit's score is relative to the top hit of its own type.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    public static final String TYPE_ALL = "all";
+    public static final String TYPE_JOB_POST = "job-post";
+    public static final String TYPE_COLLABORATION_REQUEST = "collaboration-request";
+
+    private static final String SCORE_FIELD = "score";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.search.page.max-size:50}")
+    private int maxPageSize;
+
+    @Value("${app.search.max-results:500}")
+    private int maxResults;
+
+    public SearchResultResponse search(String queryText, String type, int page, int size) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new BadRequestException("Search query is required");
+        }
+        if (!List.of(TYPE_ALL, TYPE_JOB_POST, TYPE_COLLABORATION_REQUEST).contains(type)) {
+            throw new BadRequestException("Unknown search type: " + type);
+        }
+        if (page < 0 || size < 1) {
+            throw new BadRequestException("Page must be >= 0 and size >= 1");
+        }
+        int pageSize = Math.min(size, maxPageSize);
+        int offset = page * pageSize;
+        if (offset >= maxResults) {
+            throw new BadRequestException("Search results are limited to the first " + maxResults + " hits");
+        }
+
+        // Top (offset + pageSize + 1) from each source is enough to rank this page and detect more
+        int window = offset + pageSize + 1;
+        List<String> stems = SearchHighlighter.stems(queryText);
+        List<SearchHitResponse> hits = new ArrayList<>();
+        if (TYPE_ALL.equals(type) || TYPE_JOB_POST.equals(type)) {
+            hits.addAll(searchCollection(JobPost.class, queryText, window,
+                    post -> toHit(TYPE_JOB_POST, post.getId(), post.getTitle(), stems, Map.of(
+                            "title", nullToEmpty(post.getTitle()),
+                            "description", nullToEmpty(post.getDescription()),
+                            "skillsNeeded", nullToEmpty(post.getSkillsNeeded())))));
+        }
+        if (TYPE_ALL.equals(type) || TYPE_COLLABORATION_REQUEST.equals(type)) {
+            hits.addAll(searchCollection(CollaborationRequest.class, queryText, window,
+                    req -> toHit(TYPE_COLLABORATION_REQUEST, req.getId(), req.getTitle(), stems, Map.of(
+                            "title", nullToEmpty(req.getTitle()),
+                            "description", nullToEmpty(req.getDescription())))));
+        }
+        hits.sort(Comparator.comparingDouble(SearchHitResponse::getScore).reversed());
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(offset + pageSize, hits.size());
+
+        return SearchResultResponse.builder()
+                .query(queryText)
+                .page(page)
+                .size(pageSize)
+                .hasMore(hits.size() > to && to < maxResults)
+                .hits(new ArrayList<>(hits.subList(from, to)))
+                .build();
+    }
+
+    private <T> List<SearchHitResponse> searchCollection(
+            Class<T> entityType, String queryText, int limit, Function<T, SearchHitResponse> toHit) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(queryText))
+                .sortByScore()
+                .includeScore(SCORE_FIELD)
+                .limit(limit);
+
+        List<Document> documents = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(entityType));
+        List<SearchHitResponse> hits = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            SearchHitResponse hit = toHit.apply(mongoTemplate.getConverter().read(entityType, document));
+            Object score = document.get(SCORE_FIELD);
+            hit.setScore(score instanceof Number number ? number.doubleValue() : 0);
+            hits.add(hit);
+        }
+        // Sorted by score, so the first hit is the best; it is in every window, which keeps pages consistent
+        double best = hits.isEmpty() ? 0 : hits.get(0).getScore();
+        if (best > 0) {
+            hits.forEach(hit -> hit.setScore(hit.getScore() / best));
+        }
+        return hits;
+    }
+
+    private SearchHitResponse toHit(String type, String id, String title, List<String> stems, Map<String, String> fields) {
+        Map<String, String> highlights = new LinkedHashMap<>();
+        fields.forEach((field, text) -> {
+            String fragment = SearchHighlighter.highlight(text, stems);
+            if (fragment != null) {
+                highlights.put(field, fragment);
+            }
+        });
+        return SearchHitResponse.builder()
+                .type(type)
+                .id(id)
+                .title(title)
+                .highlights(highlights)
+                .build();
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,239 @@
+package com.harmonix.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index from skill tokens to the job posts that need them.
+ *
+ * Skills and posts are interned to dense int ids so each posting list is a
+ * sorted {@code int[]} of post ids. Scoring splits the post id space into
+ * ranges scored on separate cores, each keeping its own top-K, then merges.
+ *
+ * Not thread-safe: {@link SkillMatchingService} guards it with a read/write lock.
+ */
+public class SkillInvertedIndex {
+
+    private static final int MIN_DOCS_PER_PARTITION = 16_384;
+
+    private final Map<String, Integer> skillIds = new HashMap<>();
+    private int[][] postings = new int[64][];
+    private int[] postingSizes = new int[64];
+
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private String[] postIds = new String[1024];
+    private int[][] docSkills = new int[1024][];
+    private int docCount;
+    private int liveDocs;
+
+    public record Match(String postId, double score) {
+    }
+
+    /**
+     * Adds or replaces the skills of a post.
+     */
+    public void put(String postId, Collection<String> skills) {
+        int[] skillSet = internSkills(skills);
+        Integer existing = docIds.get(postId);
+        int doc;
+        if (existing != null) {
+            doc = existing;
+            removePostings(doc);
+        } else {
+            doc = docCount++;
+            ensureDocCapacity(docCount);
+            docIds.put(postId, doc);
+            postIds[doc] = postId;
+            liveDocs++;
+        }
+        docSkills[doc] = skillSet;
+        for (int skill : skillSet) {
+            insertPosting(skill, doc);
+        }
+    }
+
+    public void remove(String postId) {
+        Integer doc = docIds.remove(postId);
+        if (doc == null) {
+            return;
+        }
+        removePostings(doc);
+        docSkills[doc] = null;
+        postIds[doc] = null;
+        liveDocs--;
+    }
+
+    public int size() {
+        return liveDocs;
+    }
+
+    public int skillCount() {
+        return skillIds.size();
+    }
+
+    /**
+     * Top-K posts for a skill set. Each matched skill contributes its inverse
+     * document frequency, so rare skills outweigh common ones; the sum is
+     * normalised by the square root of the post's skill count so that posts
+     * listing everything do not win by default.
+     */
+    public List<Match> topMatches(Collection<String> skills, int k, boolean parallel) {
+        int[] query = skills.stream()
+                .map(skillIds::get)
+                .filter(id -> id != null && postingSizes[id] > 0)
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .toArray();
+        if (query.length == 0 || k <= 0) {
+            return List.of();
+        }
+        float[] weights = new float[query.length];
+        for (int i = 0; i < query.length; i++) {
+            weights[i] = (float) Math.log(1.0 + (double) liveDocs / postingSizes[query[i]]);
+        }
+
+        int maxDoc = docCount;
+        int partitions = parallel
+                ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), maxDoc / MIN_DOCS_PER_PARTITION))
+                : 1;
+        int span = (maxDoc + partitions - 1) / partitions;
+
+        IntStream ranges = IntStream.range(0, partitions);
+        if (partitions > 1) {
+            ranges = ranges.parallel();
+        }
+        List<List<Match>> partials = ranges
+                .mapToObj(p -> scoreRange(p * span, Math.min(maxDoc, (p + 1) * span), query, weights, k))
+                .toList();
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+        for (List<Match> partial : partials) {
+            for (Match match : partial) {
+                offer(top, match, k);
+            }
+        }
+        List<Match> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingDouble(Match::score).reversed());
+        return result;
+    }
+
+    private List<Match> scoreRange(int from, int to, int[] query, float[] weights, int k) {
+        if (from >= to) {
+            return List.of();
+        }
+        float[] accumulator = new float[to - from];
+        for (int i = 0; i < query.length; i++) {
+            int[] list = postings[query[i]];
+            int size = postingSizes[query[i]];
+            float weight = weights[i];
+            for (int j = lowerBound(list, size, from); j < size && list[j] < to; j++) {
+                accumulator[list[j] - from] += weight;
+            }
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+        for (int offset = 0; offset < accumulator.length; offset++) {
+            if (accumulator[offset] > 0) {
+                int doc = from + offset;
+                double score = accumulator[offset] / Math.sqrt(docSkills[doc].length);
+                if (top.size() < k || score > top.peek().score()) {
+                    offer(top, new Match(postIds[doc], score), k);
+                }
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    private static void offer(PriorityQueue<Match> top, Match match, int k) {
+        top.offer(match);
+        if (top.size() > k) {
+            top.poll();
+        }
+    }
+
+    private int[] internSkills(Collection<String> skills) {
+        return skills.stream()
+                .mapToInt(this::internSkill)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private int internSkill(String skill) {
+        Integer id = skillIds.get(skill);
+        if (id != null) {
+            return id;
+        }
+        int newId = skillIds.size();
+        skillIds.put(skill, newId);
+        if (newId >= postings.length) {
+            int capacity = postings.length * 2;
+            postings = Arrays.copyOf(postings, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+        postings[newId] = new int[4];
+        return newId;
+    }
+
+    private void insertPosting(int skill, int doc) {
+        int[] list = postings[skill];
+        int size = postingSizes[skill];
+        int position = lowerBound(list, size, doc);
+        if (position < size && list[position] == doc) {
+            return;
+        }
+        if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+            postings[skill] = list;
+        }
+        // New posts get the highest doc id, so this is an append in the common case
+        System.arraycopy(list, position, list, position + 1, size - position);
+        list[position] = doc;
+        postingSizes[skill] = size + 1;
+    }
+
+    private void removePostings(int doc) {
+        int[] skills = docSkills[doc];
+        if (skills == null) {
+            return;
+        }
+        for (int skill : skills) {
+            int[] list = postings[skill];
+            int size = postingSizes[skill];
+            int position = lowerBound(list, size, doc);
+            if (position < size && list[position] == doc) {
+                System.arraycopy(list, position + 1, list, position, size - position - 1);
+                postingSizes[skill] = size - 1;
+            }
+        }
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > postIds.length) {
+            int newCapacity = Math.max(capacity, postIds.length * 2);
+            postIds = Arrays.copyOf(postIds, newCapacity);
+            docSkills = Arrays.copyOf(docSkills, newCapacity);
+        }
+    }
+
+    private static int lowerBound(int[] list, int size, int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,186 @@
+package com.harmonix.service;
+
+import com.harmonix.dto.response.JobPostMatchResponse;
+import com.harmonix.dto.response.JobPostSummaryResponse;
+import com.harmonix.entity.JobPost;
+import com.harmonix.exception.BadRequestException;
+import com.harmonix.mapper.JobPostMapper;
+import com.harmonix.util.SkillTokenizer;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Projections;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Matches musicians to job posts through an in-memory {@link SkillInvertedIndex}.
+ * The index is rebuilt from Mongo on startup and kept current by JobPostService
+ * on every create, update and delete. Writes that arrive during a rebuild are
+ * applied to the live index and replayed onto the new one before it is swapped in.
+ */
+@Service
+@Slf4j
+public class SkillMatchingService {
+
+    private static final String SKILLS_FIELD = "skillsNeeded";
+
+    private final MongoTemplate mongoTemplate;
+    private final JobPostMapper jobPostMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Consumer<SkillInvertedIndex>> pendingWrites = new ArrayList<>();
+
+    private final boolean rebuildOnStartup;
+    private final int rebuildBatchSize;
+    private final int maxResults;
+
+    private SkillInvertedIndex index = new SkillInvertedIndex();
+    private boolean rebuilding;
+
+    public SkillMatchingService(
+            MongoTemplate mongoTemplate,
+            JobPostMapper jobPostMapper,
+            @Value("${app.matching.rebuild-on-startup:true}") boolean rebuildOnStartup,
+            @Value("${app.matching.rebuild-batch-size:10000}") int rebuildBatchSize,
+            @Value("${app.matching.max-results:100}") int maxResults) {
+        this.mongoTemplate = mongoTemplate;
+        this.jobPostMapper = jobPostMapper;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.maxResults = maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from a projected scan of job_posts that reads only
+     * {@code _id} and {@code skillsNeeded}.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingWrites.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        SkillInvertedIndex fresh = new SkillInvertedIndex();
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(JobPost.class))
+                .find()
+                .projection(Projections.include(SKILLS_FIELD))
+                .batchSize(rebuildBatchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document post = cursor.next();
+                Object id = post.get("_id");
+                String postId = id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+                fresh.put(postId, SkillTokenizer.tokenize(post.getString(SKILLS_FIELD)));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pendingWrites.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingWrites.forEach(write -> write.accept(fresh));
+            pendingWrites.clear();
+            index = fresh;
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Skill index rebuilt: {} posts, {} skills in {} ms",
+                fresh.size(), fresh.skillCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void indexPost(JobPost jobPost) {
+        Set<String> skills = SkillTokenizer.tokenize(jobPost.getSkillsNeeded());
+        write(index -> index.put(jobPost.getId(), skills));
+    }
+
+    public void removePost(String jobPostId) {
+        write(index -> index.remove(jobPostId));
+    }
+
+    /**
+     * Top-K job posts for the given skills, best match first.
+     */
+    public List<JobPostMatchResponse> findMatches(Collection<String> skills, int k) {
+        if (k < 1) {
+            throw new BadRequestException("k must be at least 1");
+        }
+        Set<String> tokens = SkillTokenizer.tokenize(skills);
+        if (tokens.isEmpty()) {
+            throw new BadRequestException("At least one skill is required");
+        }
+
+        List<SkillInvertedIndex.Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = index.topMatches(tokens, Math.min(k, maxResults), true);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Query query = Query.query(Criteria.where("id").in(matches.stream().map(SkillInvertedIndex.Match::postId).toList()));
+        query.fields().include("userId", "title", "skillsNeeded", "collaborationType",
+                "availability", "imageUrl", "postedAt");
+        Map<String, JobPostSummaryResponse> summaries = mongoTemplate.find(query, JobPost.class).stream()
+                .collect(Collectors.toMap(JobPost::getId, jobPostMapper::toSummary));
+
+        // Keep the ranking order; skip posts deleted since they were scored
+        return matches.stream()
+                .filter(match -> summaries.containsKey(match.postId()))
+                .map(match -> JobPostMatchResponse.builder()
+                        .score(match.score())
+                        .jobPost(summaries.get(match.postId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private void write(Consumer<SkillInvertedIndex> operation) {
+        lock.writeLock().lock();
+        try {
+            operation.accept(index);
+            if (rebuilding) {
+                pendingWrites.add(operation);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
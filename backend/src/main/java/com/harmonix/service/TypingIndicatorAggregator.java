@@ -0,0 +1,131 @@
+package com.harmonix.service;
+
+import com.harmonix.dto.TypingIndicator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns per-keystroke typing frames into typing started / stopped events.
+ * State is kept per (chatId, userId); only a change in state is broadcast,
+ * and at most once per {@code min-broadcast-interval-ms}. A change held back
+ * by the interval, and typing that was never explicitly stopped, are
+ * settled by the sweeper.
+ */
+@Component
+@Slf4j
+public class TypingIndicatorAggregator {
+
+    private static final TypingIndicator RETIRED = new TypingIndicator();
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long minBroadcastIntervalNanos;
+    private final long expiryNanos;
+    private final Counter inboundFrames;
+    private final Counter outboundFrames;
+    private final Map<Key, State> states = new ConcurrentHashMap<>();
+
+    public TypingIndicatorAggregator(
+            SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.typing.min-broadcast-interval-ms:500}") long minBroadcastIntervalMillis,
+            @Value("${app.typing.expiry-ms:5000}") long expiryMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.minBroadcastIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minBroadcastIntervalMillis);
+        this.expiryNanos = TimeUnit.MILLISECONDS.toNanos(expiryMillis);
+        this.inboundFrames = meterRegistry.counter("websocket.typing.frames", "direction", "inbound");
+        this.outboundFrames = meterRegistry.counter("websocket.typing.frames", "direction", "outbound");
+    }
+
+    public void onFrame(TypingIndicator indicator) {
+        inboundFrames.increment();
+        if (indicator.getChatId() == null || indicator.getUserId() == null) {
+            return;
+        }
+        Key key = new Key(indicator.getChatId(), indicator.getUserId());
+        long now = System.nanoTime();
+        TypingIndicator change;
+        do {
+            // A state retired by the sweeper in the meantime is replaced by a fresh one
+            change = states.computeIfAbsent(key, k -> new State()).onFrame(indicator, now);
+        } while (change == RETIRED);
+        if (change != null) {
+            broadcast(change);
+        }
+    }
+
+    /**
+     * Expires typing that has gone quiet, sends changes the rate limit held
+     * back, and drops idle entries.
+     */
+    @Scheduled(fixedDelayString = "${app.typing.sweep-interval-ms:1000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        states.forEach((key, state) -> {
+            TypingIndicator change = state.onSweep(now);
+            if (change != null) {
+                broadcast(change);
+            }
+            if (state.retireIfIdle()) {
+                states.remove(key, state);
+            }
+        });
+    }
+
+    private void broadcast(TypingIndicator indicator) {
+        outboundFrames.increment();
+        messagingTemplate.convertAndSend("/topic/chat/" + indicator.getChatId() + "/typing", indicator);
+    }
+
+    private record Key(String chatId, String userId) {
+    }
+
+    private final class State {
+
+        private TypingIndicator latest;
+        private boolean typing;
+        private boolean broadcastTyping;
+        private long lastFrameAt;
+        private long lastBroadcastAt;
+        private boolean retired;
+
+        synchronized TypingIndicator onFrame(TypingIndicator indicator, long now) {
+            if (retired) {
+                return RETIRED;
+            }
+            latest = indicator;
+            typing = indicator.isTyping();
+            lastFrameAt = now;
+            return changeIfDue(now);
+        }
+
+        synchronized TypingIndicator onSweep(long now) {
+            if (typing && now - lastFrameAt >= expiryNanos) {
+                typing = false;
+            }
+            return changeIfDue(now);
+        }
+
+        synchronized boolean retireIfIdle() {
+            retired = !typing && !broadcastTyping;
+            return retired;
+        }
+
+        private TypingIndicator changeIfDue(long now) {
+            if (typing == broadcastTyping || (lastBroadcastAt != 0 && now - lastBroadcastAt < minBroadcastIntervalNanos)) {
+                return null;
+            }
+            broadcastTyping = typing;
+            lastBroadcastAt = now;
+            return new TypingIndicator(latest.getChatId(), latest.getUserId(), latest.getUserName(), typing);
+        }
+    }
+}
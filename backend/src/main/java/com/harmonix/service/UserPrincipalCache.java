@@ -0,0 +1,56 @@
+package com.harmonix.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.harmonix.entity.User;
+import com.harmonix.exception.UnauthorizedException;
+import com.harmonix.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated users keyed by email, so that
+ * resolving the caller of a REST request does not cost a Mongo round trip.
+ * Anything that changes a user's record must call {@link #invalidate(String)}.
+ * Callers get a copy, so mutating it never changes what other requests see.
+ */
+@Service
+public class UserPrincipalCache {
+
+    private static final String CACHE_NAME = "userPrincipals";
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> principals;
+
+    public UserPrincipalCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.principals.max-size:10000}") long maxSize,
+            @Value("${app.cache.principals.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+    }
+
+    public User getByEmail(String email) {
+        User user = principals.get(email, key -> userRepository.findByEmail(key).orElse(null));
+        if (user == null) {
+            throw new UnauthorizedException("No user found for email in token");
+        }
+        return user.toBuilder().build();
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            principals.invalidate(email);
+        }
+    }
+}
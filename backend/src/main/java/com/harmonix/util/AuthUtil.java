@@ -4,6 +4,7 @@ import com.harmonix.constant.AppConstants;
 import com.harmonix.entity.User;
 import com.harmonix.exception.UnauthorizedException;
 import com.harmonix.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -14,12 +15,36 @@ public final class AuthUtil {
     }
 
     public static User requireUser(HttpServletRequest request, UserRepository repo) {
+        return findUser(requireEmail(request), repo);
+    }
+
+    /**
+     * Returns the verified email for the request, reusing the verification
+     * JwtAuthFilter already did so the signature is checked at most once.
+     */
+    public static String requireEmail(HttpServletRequest request) {
+        return requireClaims(request).getSubject();
+    }
+
+    public static Claims requireClaims(HttpServletRequest request) {
+        Object claims = request.getAttribute(AppConstants.AUTH_CLAIMS_ATTRIBUTE);
+        if (claims instanceof Claims verified) {
+            return verified;
+        }
+        Object error = request.getAttribute(AppConstants.AUTH_ERROR_ATTRIBUTE);
+        if (error != null) {
+            throw new UnauthorizedException("Token invalid or expired: " + error);
+        }
+
         String token = extractTokenFromCookies(request);
         if (token == null) {
             throw new UnauthorizedException("Missing authentication token in cookies");
         }
-
-        return getUserFromToken(token, repo);
+        try {
+            return JwtUtil.verify(token);
+        } catch (Exception e) {
+            throw new UnauthorizedException("Token invalid or expired: " + e.getMessage());
+        }
     }
 
     public static User requireUser(String token, UserRepository repo) {
@@ -45,10 +70,14 @@ public final class AuthUtil {
     private static User getUserFromToken(String token, UserRepository repo) {
         try {
             String email = JwtUtil.validateToken(token);
-            return repo.findByEmail(email)
-                    .orElseThrow(() -> new UnauthorizedException("No user found for email in token"));
+            return findUser(email, repo);
         } catch (Exception e) {
             throw new UnauthorizedException("Token invalid or expired: " + e.getMessage());
         }
     }
+
+    private static User findUser(String email, UserRepository repo) {
+        return repo.findByEmail(email)
+                .orElseThrow(() -> new UnauthorizedException("No user found for email in token"));
+    }
 }
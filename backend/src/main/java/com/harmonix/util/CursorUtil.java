@@ -0,0 +1,53 @@
+package com.harmonix.util;
+
+import com.harmonix.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination positions as opaque, URL-safe cursors.
+ * A cursor is a sort key plus the document id used as a tie-breaker.
+ */
+public final class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static String encode(String sortKey, String id) {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(long sortKey, String id) {
+        return encode(Long.toString(sortKey), id);
+    }
+
+    /**
+     * Returns the {sortKey, id} pair of a cursor produced by {@link #encode}.
+     */
+    public static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split <= 0 || split == raw.length() - 1) {
+                throw new BadRequestException("Malformed cursor");
+            }
+            return new String[]{raw.substring(0, split), raw.substring(split + 1)};
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed cursor");
+        }
+    }
+
+    public static long decodeLongKey(String[] cursor) {
+        try {
+            return Long.parseLong(cursor[0]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Malformed cursor");
+        }
+    }
+}
@@ -1,51 +1,95 @@
 package com.harmonix.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.harmonix.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 public final class JwtUtil {
-    
-    private static String secretKey;
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_USER_TYPE = "type";
+
+    private static final long DEFAULT_CACHE_MAX_SIZE = 10_000;
+
     private static Long expirationTime;
+    private static SecretKey signingKey;
+    private static JwtParser parser;
+    private static Cache<String, Claims> verifiedTokens;
 
     private JwtUtil() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
 
     public static void initialize(String secret, Long expiration) {
-        secretKey = secret;
+        initialize(secret, expiration, DEFAULT_CACHE_MAX_SIZE);
+    }
+
+    /**
+     * Builds the signing key and parser once and sets up the verified-token cache.
+     * Cached entries are evicted at the token's own expiry, so a cache hit never
+     * outlives the signature check it stands in for.
+     */
+    public static void initialize(String secret, Long expiration, long cacheMaxSize) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("JWT secret key not initialized");
+        }
         expirationTime = expiration;
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
     private static SecretKey getSigningKey() {
-        if (secretKey == null || secretKey.isEmpty()) {
+        if (signingKey == null) {
             throw new IllegalStateException("JWT secret key not initialized");
         }
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
-    public static String generateToken(String email) {
+    public static String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_USER_TYPE, user.getUserType())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
                 .signWith(getSigningKey())
                 .compact();
     }
 
+    /**
+     * Verifies the token signature and expiry, reusing an earlier verification
+     * of the same token when one is cached.
+     */
+    public static Claims verify(String token) {
+        if (parser == null) {
+            throw new IllegalStateException("JWT secret key not initialized");
+        }
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        verifiedTokens.put(token, claims);
+        return claims;
+    }
+
     public static String validateToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject(); // returns email
-    }
-    
+        return verify(token).getSubject(); // returns email
+    }
+
     public static String validateAndGetEmail(String token) {
         try {
             return validateToken(token);
@@ -53,4 +97,26 @@ public final class JwtUtil {
             return null; // invalid or expired token
         }
     }
+
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            long remainingMillis = expiration != null
+                    ? expiration.getTime() - System.currentTimeMillis()
+                    : expirationTime;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
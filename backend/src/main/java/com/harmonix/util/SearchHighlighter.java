@@ -0,0 +1,89 @@
+package com.harmonix.util;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds short, HTML-escaped fragments around the words that matched a
+ * search, wrapping each match in {@code <em>}. Matching is by stem prefix so
+ * that it lines up with Mongo's stemmed text search ("guitars" for "guitar").
+ */
+public final class SearchHighlighter {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int FRAGMENT_RADIUS = 60;
+
+    private SearchHighlighter() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static List<String> stems(String query) {
+        List<String> stems = new ArrayList<>();
+        Matcher matcher = WORD.matcher(query.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String stem = stem(matcher.group());
+            if (stem.length() >= 2 && !stems.contains(stem)) {
+                stems.add(stem);
+            }
+        }
+        return stems;
+    }
+
+    /**
+     * Returns a fragment of {@code text} centred on the first match, or null
+     * when none of the stems occur in it.
+     */
+    public static String highlight(String text, List<String> stems) {
+        if (text == null || text.isEmpty() || stems.isEmpty()) {
+            return null;
+        }
+        List<int[]> matches = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String word = matcher.group().toLowerCase(Locale.ROOT);
+            if (stems.stream().anyMatch(word::startsWith)) {
+                matches.add(new int[]{matcher.start(), matcher.end()});
+            }
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        int start = Math.max(0, matches.get(0)[0] - FRAGMENT_RADIUS);
+        int end = Math.min(text.length(), matches.get(0)[1] + FRAGMENT_RADIUS);
+        StringBuilder fragment = new StringBuilder();
+        if (start > 0) {
+            fragment.append("…");
+        }
+        int cursor = start;
+        for (int[] match : matches) {
+            if (match[0] < start || match[1] > end) {
+                continue;
+            }
+            fragment.append(HtmlUtils.htmlEscape(text.substring(cursor, match[0])))
+                    .append("<em>")
+                    .append(HtmlUtils.htmlEscape(text.substring(match[0], match[1])))
+                    .append("</em>");
+            cursor = match[1];
+        }
+        fragment.append(HtmlUtils.htmlEscape(text.substring(cursor, end)));
+        if (end < text.length()) {
+            fragment.append("…");
+        }
+        return fragment.toString();
+    }
+
+    private static String stem(String word) {
+        for (String suffix : new String[]{"ing", "ers", "es", "ed", "er", "s"}) {
+            if (word.length() > suffix.length() + 2 && word.endsWith(suffix)) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+}
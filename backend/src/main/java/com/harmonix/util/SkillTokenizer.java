@@ -0,0 +1,57 @@
+package com.harmonix.util;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalises free-text skill lists ("Electric Guitar, vocals & Mixing") into
+ * skill tokens: each listed phrase, plus its individual words so that
+ * "guitar" still matches a post asking for "electric guitar".
+ */
+public final class SkillTokenizer {
+
+    private static final Pattern PHRASE_SEPARATOR = Pattern.compile("[,;/|&\\n]+|\\s+and\\s+");
+    private static final Pattern NON_SKILL_CHARS = Pattern.compile("[^\\p{L}\\p{N}+#\\s]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Set<String> STOP_WORDS = Set.of("and", "or", "the", "a", "an", "of", "in", "for", "with");
+
+    private SkillTokenizer() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static Set<String> tokenize(String skills) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (skills == null || skills.isBlank()) {
+            return tokens;
+        }
+        for (String rawPhrase : PHRASE_SEPARATOR.split(skills.toLowerCase(Locale.ROOT))) {
+            String phrase = WHITESPACE.matcher(NON_SKILL_CHARS.matcher(rawPhrase).replaceAll(" "))
+                    .replaceAll(" ")
+                    .trim();
+            if (phrase.isEmpty()) {
+                continue;
+            }
+            tokens.add(phrase);
+            String[] words = WHITESPACE.split(phrase);
+            if (words.length > 1) {
+                for (String word : words) {
+                    if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                        tokens.add(word);
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    public static Set<String> tokenize(Collection<String> skills) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String skill : skills) {
+            tokens.addAll(tokenize(skill));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,74 @@
+package com.harmonix.benchmark;
+
+import com.harmonix.entity.User;
+import com.harmonix.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JWT verification throughput on the auth path:
+ * the old per-call key/parser build, a prebuilt parser, and the cached verifier.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.harmonix.benchmark.JwtVerificationBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long";
+
+    private String token;
+    private JwtParser prebuiltParser;
+
+    @Setup
+    public void setUp() {
+        JwtUtil.initialize(SECRET, 3_600_000L);
+        token = JwtUtil.generateToken(User.builder()
+                .id("64b7f0c2a1b2c3d4e5f60718")
+                .email("benchmark@harmonix.dev")
+                .userType("musician")
+                .build());
+        prebuiltParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    @Benchmark
+    public Claims coldRebuildKeyAndParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims coldPrebuiltParser() {
+        return prebuiltParser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims cached() {
+        return JwtUtil.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.harmonix.benchmark;
+
+import com.harmonix.entity.ChatHead;
+import com.harmonix.entity.Message;
+import com.harmonix.repository.ChatHeadRepository;
+import com.harmonix.repository.MessageRepository;
+import com.harmonix.service.ChatHeadService;
+import com.harmonix.service.ChatMembershipCache;
+import com.harmonix.service.MessageWriteBehind;
+import com.harmonix.service.ResourceVersions;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages per second through the synchronous send path (save plus chat head
+ * upsert per message) against the write-behind pipeline, with every message
+ * acknowledged as stored before the invocation ends. Needs a real MongoDB:
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.harmonix.benchmark.MessageWriteBenchmark
+ *           -Dbenchmark.mongo.uri=mongodb://localhost:27017
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MessageWriteBenchmark {
+
+    private static final int MESSAGES_PER_INVOCATION = 1_000;
+    private static final String DATABASE = "harmonix-benchmark";
+
+    @Param({"50"})
+    private int chats;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MessageRepository messageRepository;
+    private ChatHeadService chatHeadService;
+    private MessageWriteBehind writeBehind;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("benchmark.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.dropCollection(Message.class);
+        mongoTemplate.dropCollection(ChatHead.class);
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        messageRepository = repositories.getRepository(MessageRepository.class);
+        chatHeadService = new ChatHeadService(repositories.getRepository(ChatHeadRepository.class), mongoTemplate,
+                new ChatMembershipCache(mongoTemplate, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(10)),
+                new ResourceVersions(true, 10_000));
+        writeBehind = new MessageWriteBehind(mongoTemplate, chatHeadService, new SimpleMeterRegistry(),
+                "async-with-ack", 10_000, 500, 20, 100);
+        writeBehind.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+        client.getDatabase(DATABASE).drop();
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void synchronousSave() {
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+            Message saved = messageRepository.save(nextMessage(false));
+            chatHeadService.updateChatHeadFromMessage(saved);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void writeBehindAcknowledged() {
+        List<CompletableFuture<Message>> pending = new ArrayList<>(MESSAGES_PER_INVOCATION);
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i++) {
+            pending.add(writeBehind.submit(nextMessage(true)));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private Message nextMessage(boolean withId) {
+        long n = sequence++;
+        int chat = (int) (n % chats);
+        boolean fromFirst = (n / chats) % 2 == 0;
+        String a = "user-a-" + chat;
+        String b = "user-b-" + chat;
+        return Message.builder()
+                .id(withId ? new ObjectId().toHexString() : null)
+                .chatId(a + "_" + b)
+                .senderId(fromFirst ? a : b)
+                .receiverId(fromFirst ? b : a)
+                .message("benchmark message " + n)
+                .type("text")
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MessageWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
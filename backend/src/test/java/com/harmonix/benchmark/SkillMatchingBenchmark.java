@@ -0,0 +1,91 @@
+package com.harmonix.benchmark;
+
+import com.harmonix.service.SkillInvertedIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K scoring over a synthetic index of a million job posts, sequential
+ * against partitioned across cores. Skill popularity is skewed so that a few
+ * skills ("guitar", "vocals") have very long posting lists, as in real data.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.harmonix.benchmark.SkillMatchingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SkillMatchingBenchmark {
+
+    private static final int SKILL_VOCABULARY = 2_000;
+
+    @Param({"1000000"})
+    private int posts;
+
+    @Param({"20"})
+    private int k;
+
+    private SkillInvertedIndex index;
+    private List<String> commonQuery;
+    private List<String> rareQuery;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new SkillInvertedIndex();
+        for (int post = 0; post < posts; post++) {
+            int skillCount = 2 + random.nextInt(6);
+            Set<String> skills = new HashSet<>();
+            for (int i = 0; i < skillCount; i++) {
+                skills.add(skewedSkill(random));
+            }
+            index.put(Integer.toString(post), skills);
+        }
+        commonQuery = List.of("skill-0", "skill-1", "skill-2", "skill-7", "skill-40");
+        rareQuery = new ArrayList<>(List.of("skill-900", "skill-1200", "skill-1999"));
+    }
+
+    @Benchmark
+    public Object commonSkillsSequential() {
+        return index.topMatches(commonQuery, k, false);
+    }
+
+    @Benchmark
+    public Object commonSkillsParallel() {
+        return index.topMatches(commonQuery, k, true);
+    }
+
+    @Benchmark
+    public Object rareSkillsSequential() {
+        return index.topMatches(rareQuery, k, false);
+    }
+
+    @Benchmark
+    public Object rareSkillsParallel() {
+        return index.topMatches(rareQuery, k, true);
+    }
+
+    private static String skewedSkill(Random random) {
+        // Squaring a uniform sample concentrates picks on low skill ids
+        double sample = random.nextDouble();
+        return "skill-" + (int) (sample * sample * SKILL_VOCABULARY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SkillMatchingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.harmonix.benchmark;
+
+import com.harmonix.entity.User;
+import com.harmonix.security.AuthenticatedUser;
+import com.harmonix.security.StompAuthChannelInterceptor;
+import com.harmonix.service.ChatMembershipCache;
+import com.harmonix.util.JwtUtil;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame authorisation cost of a SUBSCRIBE to a chat topic: verifying the
+ * JWT on every frame (the token re-parsed with a prebuilt parser) against the
+ * session-bound user plus the chat membership cache, as done by
+ * {@link StompAuthChannelInterceptor}. Membership loads are stubbed, so the
+ * per-frame variant understates the cost of its Mongo round trip.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.harmonix.benchmark.StompAuthBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StompAuthBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long";
+    private static final String USER_ID = "64b7f0c2a1b2c3d4e5f60718";
+    private static final String CHAT_ID = USER_ID + "_64b7f0c2a1b2c3d4e5f60719";
+    private static final String DESTINATION = "/topic/chat/" + CHAT_ID;
+
+    private String token;
+    private JwtParser parser;
+    private StompAuthChannelInterceptor interceptor;
+    private Message<byte[]> subscribe;
+
+    @Setup
+    public void setUp() {
+        JwtUtil.initialize(SECRET, 3_600_000L);
+        token = JwtUtil.generateToken(User.builder()
+                .id(USER_ID)
+                .email("benchmark@harmonix.dev")
+                .userType("musician")
+                .build());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+
+        ChatMembershipCache membership = new ChatMembershipCache(null, new SimpleMeterRegistry(),
+                10_000, Duration.ofMinutes(10)) {
+            @Override
+            protected Set<String> loadParticipants(String chatId) {
+                return Set.of(chatId.split("_"));
+            }
+        };
+        interceptor = new StompAuthChannelInterceptor(membership);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(DESTINATION);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(AuthenticatedUser.fromClaims(JwtUtil.verify(token)));
+        accessor.setLeaveMutable(true);
+        subscribe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Benchmark
+    public boolean perFrameTokenVerification() {
+        AuthenticatedUser user = AuthenticatedUser.fromClaims(parser.parseClaimsJws(token).getBody());
+        return Set.of(CHAT_ID.split("_")).contains(user.getId());
+    }
+
+    @Benchmark
+    public Message<?> sessionBoundInterceptor() {
+        return interceptor.preSend(subscribe, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StompAuthBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
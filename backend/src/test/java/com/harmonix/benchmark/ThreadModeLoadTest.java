@@ -0,0 +1,104 @@
+package com.harmonix.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for comparing the platform-thread and
+ * virtual-thread modes. Run it once against a backend started with
+ * VIRTUAL_THREADS_ENABLED=false and once with true, and compare the tables:
+ * throughput, p50/p99 latency and error count at each concurrency level. The
+ * platform setup flattens out near server.tomcat.threads.max (200 by default)
+ * while the virtual setup should keep scaling until Mongo becomes the limit.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.harmonix.benchmark.ThreadModeLoadTest
+ *           -Dexec.args="http://localhost:8080 /api/job-posts/feed?limit=20 30 50,200,800,2000"
+ */
+public final class ThreadModeLoadTest {
+
+    private ThreadModeLoadTest() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String path = args.length > 1 ? args[1] : "/api/job-posts/feed?limit=20";
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int[] levels = args.length > 3
+                ? Arrays.stream(args[3].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{50, 200, 800, 2000};
+
+        URI uri = URI.create(baseUrl + path);
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            System.out.printf("%-12s %12s %10s %10s %10s %8s%n", "concurrency", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+            for (int concurrency : levels) {
+                Result result = run(client, uri, concurrency, Duration.ofSeconds(seconds));
+                System.out.printf("%-12d %12.1f %10.1f %10.1f %10.1f %8d%n", concurrency,
+                        result.throughput(), result.p50(), result.p99(), result.max(), result.errors());
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - started);
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        sorted.sort(null);
+        return new Result(
+                sorted.size() / (double) duration.toSeconds(),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1) / 1_000_000.0,
+                errors.get());
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+
+    private record Result(double throughput, double p50, double p99, double max, long errors) {
+    }
+}
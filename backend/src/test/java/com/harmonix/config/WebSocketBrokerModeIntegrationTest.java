@@ -0,0 +1,238 @@
+package com.harmonix.config;
+
+import com.harmonix.entity.User;
+import com.harmonix.security.JwtHandshakeHandler;
+import com.harmonix.security.StompAuthChannelInterceptor;
+import com.harmonix.service.ChatMembershipCache;
+import com.harmonix.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the chat destinations through both broker modes. In relay mode two
+ * application nodes share an embedded Artemis broker, and a message published
+ * on one node must reach a subscriber connected to the other. Subscribers
+ * authenticate at CONNECT with a bearer token.
+ */
+class WebSocketBrokerModeIntegrationTest {
+
+    private static final String CHAT_TOPIC = "/topic/chat/alice_bob";
+    private static final String USER_QUEUE = "/queue/messages/bob";
+
+    private static EmbeddedActiveMQ artemis;
+    private static int stompPort;
+    private static String bobToken;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            stompPort = socket.getLocalPort();
+        }
+        // Multicast by default so every subscriber to /queue/... gets a copy, as with the simple broker
+        Configuration configuration = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort + "?protocols=STOMP")
+                .addAddressSetting("#", new AddressSettings()
+                        .setDefaultAddressRoutingType(RoutingType.MULTICAST)
+                        .setDefaultQueueRoutingType(RoutingType.MULTICAST)
+                        .setAutoCreateAddresses(true)
+                        .setAutoCreateQueues(true));
+        artemis = new EmbeddedActiveMQ().setConfiguration(configuration);
+        artemis.start();
+
+        JwtUtil.initialize("broker-test-secret-key-that-is-at-least-256-bits-long", 3_600_000L);
+        bobToken = JwtUtil.generateToken(User.builder().id("bob").email("bob@harmonix.dev").userType("musician").build());
+    }
+
+    @AfterAll
+    static void stopBroker() throws Exception {
+        artemis.stop();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        sessions.forEach(StompSession::disconnect);
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void simpleBrokerDeliversChatDestinations() throws Exception {
+        ConfigurableApplicationContext node = startNode(WebSocketConfig.BROKER_MODE_SIMPLE);
+        assertThat(activeBroker(node)).isInstanceOf(SimpleBrokerMessageHandler.class);
+        assertDelivered(node, node, CHAT_TOPIC);
+        assertDelivered(node, node, USER_QUEUE);
+    }
+
+    @Test
+    void relayDeliversChatDestinationsOnTheSameNode() throws Exception {
+        ConfigurableApplicationContext node = startNode(WebSocketConfig.BROKER_MODE_RELAY);
+        assertDelivered(node, node, CHAT_TOPIC);
+        assertDelivered(node, node, USER_QUEUE);
+        assertRelayConnected(node);
+    }
+
+    @Test
+    void relayDeliversChatDestinationsAcrossNodes() throws Exception {
+        ConfigurableApplicationContext subscriberNode = startNode(WebSocketConfig.BROKER_MODE_RELAY);
+        ConfigurableApplicationContext publisherNode = startNode(WebSocketConfig.BROKER_MODE_RELAY);
+        assertDelivered(subscriberNode, publisherNode, CHAT_TOPIC);
+        assertDelivered(subscriberNode, publisherNode, USER_QUEUE);
+        assertRelayConnected(subscriberNode);
+        assertRelayConnected(publisherNode);
+    }
+
+    private AbstractBrokerMessageHandler activeBroker(ConfigurableApplicationContext node) {
+        Map<String, AbstractBrokerMessageHandler> brokers = node.getBeansOfType(AbstractBrokerMessageHandler.class);
+        assertThat(brokers).hasSize(1);
+        return brokers.values().iterator().next();
+    }
+
+    private void assertRelayConnected(ConfigurableApplicationContext node) {
+        AbstractBrokerMessageHandler broker = activeBroker(node);
+        assertThat(broker).isInstanceOf(StompBrokerRelayMessageHandler.class);
+        StompBrokerRelayMessageHandler relay = (StompBrokerRelayMessageHandler) broker;
+        assertThat(relay.getRelayHost()).isEqualTo("127.0.0.1");
+        assertThat(relay.getRelayPort()).isEqualTo(stompPort);
+        assertThat(relay.isBrokerAvailable()).isTrue();
+    }
+
+    private void assertDelivered(ConfigurableApplicationContext subscriberNode,
+                                 ConfigurableApplicationContext publisherNode,
+                                 String destination) throws Exception {
+        BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        StompSession session = connect(subscriberNode);
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<String, Object>) payload);
+            }
+        });
+
+        // The subscription reaches the broker asynchronously; publish until it is live
+        SimpMessagingTemplate template = publisherNode.getBean(SimpMessagingTemplate.class);
+        Map<String, Object> message = null;
+        for (int attempt = 0; attempt < 50 && message == null; attempt++) {
+            template.convertAndSend(destination, Map.of("chatId", "alice_bob", "message", "hello"));
+            message = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+        assertThat(message).as(destination).isNotNull().containsEntry("message", "hello");
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node) throws Exception {
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + bobToken);
+        StompSession session = client.connectAsync("ws://localhost:" + port + "/ws/websocket",
+                new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+
+    private ConfigurableApplicationContext startNode(String brokerMode) {
+        // Command-line args, so they win over the defaults in application.properties
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(BrokerNode.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--app.websocket.broker.mode=" + brokerMode,
+                        "--app.websocket.relay.host=127.0.0.1",
+                        "--app.websocket.relay.port=" + stompPort);
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * Just the web server and the STOMP broker configuration under test.
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            WebSocketServletAutoConfiguration.class,
+            WebSocketMessagingAutoConfiguration.class
+    })
+    @Import({WebSocketConfig.class, WebSocketOutboundFlowControl.class, JwtHandshakeHandler.class,
+            StompAuthChannelInterceptor.class})
+    static class BrokerNode {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        // No Mongo here: participants come from the chat id alone
+        @Bean
+        ChatMembershipCache chatMembershipCache(MeterRegistry meterRegistry) {
+            return new ChatMembershipCache(null, meterRegistry, 100, Duration.ofMinutes(1)) {
+                @Override
+                protected Set<String> loadParticipants(String chatId) {
+                    return Set.of(chatId.split("_"));
+                }
+            };
+        }
+    }
+}
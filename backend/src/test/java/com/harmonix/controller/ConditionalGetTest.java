@@ -0,0 +1,151 @@
+package com.harmonix.controller;
+
+import com.harmonix.dto.response.JobPostResponse;
+import com.harmonix.mapper.UserMapper;
+import com.harmonix.repository.JobPostRepository;
+import com.harmonix.repository.UserRepository;
+import com.harmonix.security.AuthenticatedUser;
+import com.harmonix.service.ChatHeadService;
+import com.harmonix.service.CloudinaryService;
+import com.harmonix.service.JobPostService;
+import com.harmonix.service.ResourceVersions;
+import com.harmonix.service.SkillMatchingService;
+import com.harmonix.service.UserPrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Polls of unchanged resources must be answered from the version counters
+ * alone: 304, no service or repository call.
+ */
+class ConditionalGetTest {
+
+    private static final AuthenticatedUser ALICE = new AuthenticatedUser("alice", "alice@harmonix.dev", "musician");
+
+    private final JobPostService jobPostService = mock(JobPostService.class);
+    private final JobPostRepository jobPostRepository = mock(JobPostRepository.class);
+    private final ChatHeadService chatHeadService = mock(ChatHeadService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ResourceVersions resourceVersions = new ResourceVersions(true, 1_000);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new JobPostController(jobPostService, jobPostRepository,
+                                mock(CloudinaryService.class), mock(SkillMatchingService.class), resourceVersions),
+                        new ChatHeadController(chatHeadService, resourceVersions),
+                        new UserController(userRepository, mock(UserMapper.class),
+                                mock(UserPrincipalCache.class), resourceVersions))
+                .addPlaceholderValue("cors.allowed-origins", "http://localhost:5173")
+                .setCustomArgumentResolvers(new FixedUserResolver())
+                .build();
+    }
+
+    @Test
+    void unchangedJobPostPollIsNotModifiedWithoutQuery() throws Exception {
+        when(jobPostService.getAllJobPosts()).thenReturn(List.of(new JobPostResponse()));
+        MvcResult first = mockMvc.perform(get("/api/job-posts"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        verify(jobPostService).getAllJobPosts();
+
+        clearInvocations(jobPostService);
+        mockMvc.perform(get("/api/job-posts").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/job-posts/post-1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verifyNoInteractions(jobPostService, jobPostRepository);
+    }
+
+    @Test
+    void writeChangesTheJobPostEtag() throws Exception {
+        String before = resourceVersions.etag(ResourceVersions.JOB_POSTS);
+        resourceVersions.bump(ResourceVersions.JOB_POSTS);
+        when(jobPostService.getAllJobPosts()).thenReturn(List.of());
+
+        MvcResult result = mockMvc.perform(get("/api/job-posts").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(before);
+        verify(jobPostService).getAllJobPosts();
+    }
+
+    @Test
+    void chatHeadEtagIsPerUser() throws Exception {
+        String etag = resourceVersions.etag(ResourceVersions.CHAT_HEADS, ALICE.getId());
+        mockMvc.perform(get("/api/chat-heads/me").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verifyNoInteractions(chatHeadService);
+
+        // Another user's write leaves Alice's tag alone; her own does not
+        resourceVersions.bumpUser("bob");
+        assertThat(resourceVersions.etag(ResourceVersions.CHAT_HEADS, ALICE.getId())).isEqualTo(etag);
+        resourceVersions.bumpUser(ALICE.getId());
+        assertThat(resourceVersions.etag(ResourceVersions.CHAT_HEADS, ALICE.getId())).isNotEqualTo(etag);
+        assertThat(resourceVersions.etag(ResourceVersions.CHAT_HEADS, "bob")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void unchangedUserBulkPollIsNotModifiedWithoutQuery() throws Exception {
+        String etag = resourceVersions.etag(ResourceVersions.USERS);
+        mockMvc.perform(get("/api/users/bulk").param("ids", "alice", "bob").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void evictedUserNeverMatchesAnOlderTag() {
+        ResourceVersions small = new ResourceVersions(true, 1);
+        small.bumpUser("alice");
+        String aliceTag = small.etag(ResourceVersions.CHAT_HEADS, "alice");
+        for (int i = 0; i < 100; i++) {
+            small.bumpUser("user-" + i);
+        }
+        small.bumpUser("alice");
+        for (int i = 100; i < 200; i++) {
+            small.bumpUser("user-" + i);
+        }
+        assertThat(small.etag(ResourceVersions.CHAT_HEADS, "alice")).isNotEqualTo(aliceTag);
+    }
+
+    private static final class FixedUserResolver implements HandlerMethodArgumentResolver {
+
+        @Override
+        public boolean supportsParameter(MethodParameter parameter) {
+            return AuthenticatedUser.class.equals(parameter.getParameterType());
+        }
+
+        @Override
+        public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+            return ALICE;
+        }
+    }
+}
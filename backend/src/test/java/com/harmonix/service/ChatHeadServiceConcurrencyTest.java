@@ -0,0 +1,169 @@
+package com.harmonix.service;
+
+import com.harmonix.entity.ChatHead;
+import com.harmonix.entity.Message;
+import com.harmonix.repository.ChatHeadRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ChatHeadServiceConcurrencyTest {
+
+    private static final String CHAT_ID = "alice_bob";
+    private static final int THREADS = 32;
+    private static final int MESSAGES_PER_THREAD = 50;
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ChatHeadService chatHeadService;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(MONGO.getConnectionString());
+        mongoTemplate = new MongoTemplate(client, "harmonix-test");
+        ChatHeadRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(ChatHeadRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        chatHeadService = new ChatHeadService(repository, mongoTemplate,
+                new ChatMembershipCache(mongoTemplate, meterRegistry, 1_000, Duration.ofMinutes(1)),
+                new ResourceVersions(true, 1_000));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @BeforeEach
+    void clean() {
+        mongoTemplate.dropCollection(ChatHead.class);
+    }
+
+    @Test
+    void concurrentSendsKeepTheNewestMessage() throws Exception {
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < THREADS * MESSAGES_PER_THREAD; i++) {
+            messages.add(message("message-" + i, base.plusMillis(i)));
+        }
+        Message newest = messages.get(messages.size() - 1);
+        Collections.shuffle(messages);
+
+        runConcurrently(thread -> {
+            for (int i = thread; i < messages.size(); i += THREADS) {
+                chatHeadService.updateChatHeadFromMessage(messages.get(i));
+            }
+            return null;
+        });
+
+        assertThat(mongoTemplate.count(new Query(), ChatHead.class)).isEqualTo(1);
+        ChatHead head = mongoTemplate.findById(CHAT_ID, ChatHead.class);
+        assertThat(head).isNotNull();
+        assertThat(head.getLastMessage()).isEqualTo(newest.getMessage());
+        assertThat(head.getLastUpdated()).isEqualTo(newest.getTimestamp());
+        assertThat(head.getParticipants()).containsExactlyInAnyOrder("alice", "bob");
+        assertThat(head.getUnreadCounts()).containsEntry("bob", THREADS * MESSAGES_PER_THREAD);
+    }
+
+    @Test
+    void olderMessageDoesNotOverwriteNewer() {
+        Instant now = Instant.parse("2025-01-01T12:00:00Z");
+        chatHeadService.updateChatHeadFromMessage(message("newer", now));
+        chatHeadService.updateChatHeadFromMessage(message("older", now.minusSeconds(5)));
+
+        ChatHead head = mongoTemplate.findById(CHAT_ID, ChatHead.class);
+        assertThat(head).isNotNull();
+        assertThat(head.getLastMessage()).isEqualTo("newer");
+        assertThat(head.getLastUpdated()).isEqualTo(now);
+        assertThat(head.getUnreadCounts()).containsEntry("bob", 2);
+    }
+
+    @Test
+    void markAsReadClearsOnlyTheReader() {
+        chatHeadService.updateChatHeadFromMessage(message("hello", Instant.now()));
+        chatHeadService.updateChatHeadFromMessage(message("again", Instant.now()));
+
+        assertThat(chatHeadService.getUnreadCount("bob").getTotal()).isEqualTo(2);
+        chatHeadService.markAsRead(CHAT_ID, "bob");
+        assertThat(chatHeadService.getUnreadCount("bob").getTotal()).isZero();
+    }
+
+    @Test
+    void concurrentCreatesReturnTheSameHead() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        runConcurrently(thread -> {
+            ChatHead head = thread % 2 == 0
+                    ? chatHeadService.createChatIfNotExists("alice", "bob")
+                    : chatHeadService.createChatIfNotExists("bob", "alice");
+            ids.add(head.getId());
+            return null;
+        });
+
+        assertThat(ids).containsExactly(CHAT_ID);
+        assertThat(mongoTemplate.count(new Query(), ChatHead.class)).isEqualTo(1);
+    }
+
+    private static Message message(String text, Instant timestamp) {
+        return Message.builder()
+                .chatId(CHAT_ID)
+                .senderId("alice")
+                .receiverId("bob")
+                .message(text)
+                .type("text")
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(index);
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
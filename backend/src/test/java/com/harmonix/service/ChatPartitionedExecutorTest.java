@@ -0,0 +1,142 @@
+package com.harmonix.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatPartitionedExecutorTest {
+
+    private static final int LANES = 8;
+    private static final int PRODUCERS = 16;
+    private static final int CHATS = 256;
+    private static final int MESSAGES_PER_CHAT = 500;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatPartitionedExecutor executor = new ChatPartitionedExecutor(meterRegistry, LANES, 64, false);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Test
+    void keepsPerChatOrderUnderContention() throws Exception {
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        Set<String> laneThreads = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(CHATS * MESSAGES_PER_CHAT);
+
+        // Each chat belongs to one producer, so its submission order is well defined;
+        // producers interleave freely across chats and lanes
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            futures.add(producers.submit(() -> {
+                start.await();
+                for (int seq = 0; seq < MESSAGES_PER_CHAT; seq++) {
+                    for (int chat = producer; chat < CHATS; chat += PRODUCERS) {
+                        String chatId = "chat-" + chat;
+                        int sequence = seq;
+                        executor.execute(chatId, () -> {
+                            if (ThreadLocalRandom.current().nextInt(100) == 0) {
+                                Thread.yield();
+                            }
+                            processed.computeIfAbsent(chatId, key -> new ArrayList<>()).add(sequence);
+                            laneThreads.add(Thread.currentThread().getName());
+                            done.countDown();
+                        });
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        producers.shutdown();
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).hasSize(CHATS);
+        processed.forEach((chatId, sequences) -> {
+            assertThat(sequences).as(chatId).hasSize(MESSAGES_PER_CHAT).isSorted();
+        });
+        assertThat(laneThreads).hasSize(LANES);
+    }
+
+    @Test
+    void shutdownFinishesRunningAndQueuedTasksWithoutInterrupting() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> interrupted = new ArrayList<>();
+        List<Integer> completed = new ArrayList<>();
+        executor.execute("alice_bob", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            interrupted.add(Thread.currentThread().isInterrupted());
+            completed.add(0);
+        });
+        executor.execute("alice_bob", () -> completed.add(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread shutdown = new Thread(() -> {
+            try {
+                executor.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        shutdown.start();
+        TimeUnit.MILLISECONDS.sleep(200);
+        release.countDown();
+        shutdown.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertThat(interrupted).containsExactly(false);
+        assertThat(completed).containsExactly(0, 1);
+        assertThatThrownBy(() -> executor.execute("alice_bob", () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void sameChatAlwaysMapsToSameLane() {
+        int lane = executor.laneOf("alice_bob");
+        for (int i = 0; i < 100; i++) {
+            assertThat(executor.laneOf("alice_bob")).isEqualTo(lane);
+        }
+        assertThat(lane).isBetween(0, LANES - 1);
+    }
+
+    @Test
+    void recordsLaneLatency() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute("alice_bob", done::countDown);
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String lane = Integer.toString(executor.laneOf("alice_bob"));
+        // The timer is recorded just after the task returns
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(meterRegistry.get("chat.lanes.latency").tag("lane", lane).timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.lanes.queue.size").gauges()).hasSize(LANES);
+    }
+}